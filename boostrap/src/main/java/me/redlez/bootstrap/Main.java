@@ -18,6 +18,13 @@ public class Main {
     private static final Path LAUNCHER_JAR = INSTALL_DIR.resolve("launcher.jar");
     private static final Path LAUNCHER_LIB = INSTALL_DIR.resolve("libs");
 
+    // One client for every bootstrap download so connections to the same host are reused
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .followRedirects(HttpClient.Redirect.ALWAYS)
+            .connectTimeout(Duration.ofSeconds(15))
+            .build();
+
     private static JProgressBar progressBar;
     private static JFrame frame;
 
@@ -116,17 +123,13 @@ public class Main {
 
                 Files.createDirectories(targetPath.getParent());
 
-                HttpClient client = HttpClient.newBuilder()
-                        .followRedirects(HttpClient.Redirect.ALWAYS)
-                        .build();
-
                 HttpRequest request = HttpRequest.newBuilder()
                         .uri(URI.create(urlStr))
                         .timeout(Duration.ofSeconds(60))
                         .header("User-Agent", "Mozilla/5.0 (compatible; DragonLauncher Bootstrap/1.0)")
                         .build();
 
-                HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                HttpResponse<InputStream> response = CLIENT.send(request, HttpResponse.BodyHandlers.ofInputStream());
                 LOGGER("Response Code: " + response.statusCode());
                 response.headers().map().forEach((k, v) -> LOGGER(k + ": " + v));
                 long total = response.headers().firstValueAsLong("Content-Length").orElse(-1L);
@@ -1,14 +1,19 @@
 package me.redlez.dragonLauncher;
 
+import java.io.IOException;
+
 import javafx.application.Application;
 import javafx.scene.Scene;
 import javafx.scene.image.Image;
 import javafx.stage.Stage;
 import me.redlez.dragonLauncher.ui.MainScene;
+import me.redlez.dragonLauncher.utils.CacheProxy;
+import me.redlez.dragonLauncher.utils.ConnectivityService;
 
 public class Main extends Application {
 	
-	public static MainScene mainScene = new MainScene();
+	// Created with the stage, so the headless cache mode never touches JavaFX controls
+	public static MainScene mainScene;
 
     @Override
     public void start(Stage stage) {
@@ -16,13 +21,26 @@ public class Main extends Application {
         stage.getIcons().add(
         	    new Image(getClass().getResourceAsStream("/icons/launcher.png"))
         	);
+        mainScene = new MainScene();
         Scene scene = mainScene.create(stage);
 
         stage.setScene(scene);
         stage.show();
     }
 
-    public static void main(String[] args) {
+    @Override
+    public void stop() {
+        if (mainScene != null) mainScene.shutdown();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--cache-proxy")) {
+            // Headless: serve this machine's artifact store to the other launchers on the LAN
+            CacheProxy.serve(args.length > 1 ? Integer.parseInt(args[1]) : CacheProxy.DEFAULT_PORT);
+            return;
+        }
+        // Warm the connectivity cache while the UI comes up
+        ConnectivityService.refresh();
         launch();
     }
     
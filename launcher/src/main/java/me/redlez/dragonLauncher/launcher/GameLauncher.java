@@ -6,10 +6,14 @@ import me.redlez.dragonLauncher.launcher.Runners.GameRunner;
 import me.redlez.dragonLauncher.launcher.Runners.VanillaRunner;
 import me.redlez.dragonLauncher.utils.LoggerUtil;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 public class GameLauncher {
 
     private static final LoggerUtil LOGGER = new LoggerUtil("GameLauncher");
     private boolean isLaunching = false;
+    // Set on the launch worker, cancelled from the FX thread
+    private final AtomicReference<GameRunner> current = new AtomicReference<>();
 
     public void launchGame(TextField playerNameField, ComboBox<String> versionBox,
                            ProgressBar progressBar, Label progressLabel) throws Exception {
@@ -33,6 +37,19 @@ public class GameLauncher {
 
         LOGGER.info("Launching Minecraft " + version + " as " + playerName);
 
+        // Whatever the previous launch is still downloading gives way to this one
+        GameRunner previous = current.getAndSet(runner);
+        if (previous != null) {
+            previous.cancel();
+        }
         runner.launch(playerName, progressBar, progressLabel);
         }
+
+    public void cancel() {
+        // Swapped out atomically so a runner installed meanwhile is never dropped uncancelled
+        GameRunner runner = current.getAndSet(null);
+        if (runner != null) {
+            runner.cancel();
+        }
+    }
 }
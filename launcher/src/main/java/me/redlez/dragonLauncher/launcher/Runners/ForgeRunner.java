@@ -9,6 +9,11 @@ import me.redlez.dragonLauncher.utils.*;
 
 import java.io.File;
 import java.nio.file.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 public class ForgeRunner implements GameRunner {
 
@@ -16,6 +21,12 @@ public class ForgeRunner implements GameRunner {
     private Label progressLabel;
     private final Path baseDir = Paths.get(System.getProperty("user.home"), ".minecraft");
     private static final LoggerUtil LOGGER = new LoggerUtil("ForgeRunner");
+    private volatile VanillaRunner vanillaRunner;
+    private volatile boolean cancelled;
+    // What cancel() has to stop, published by launch() before it checks the flag
+    private volatile Future<?> installerDownload;
+    private volatile Future<Path> javaDownload;
+    private volatile Process installerProcess;
 
     public ForgeRunner(String version, Label prglb) {
         this.version = version;
@@ -35,8 +46,10 @@ public class ForgeRunner implements GameRunner {
 
         JsonObject forgeJson = JsonParser.parseReader(Files.newBufferedReader(jsonFile)).getAsJsonObject();
         JsonArray libraries = forgeJson.getAsJsonArray("libraries");
+        InstallIndex index = InstallIndex.forDir(this.baseDir);
 
         for (JsonElement libElem : libraries) {
+            if (cancelled) break;
             JsonObject lib = libElem.getAsJsonObject();
             JsonObject downloads = lib.getAsJsonObject("downloads");
             if (!downloads.has("artifact")) continue;
@@ -44,14 +57,26 @@ public class ForgeRunner implements GameRunner {
             JsonObject artifact = downloads.getAsJsonObject("artifact");
             String path = artifact.get("path").getAsString();
             String url = artifact.get("url").getAsString();
+            String sha1 = artifact.has("sha1") ? artifact.get("sha1").getAsString() : null;
+            long size = artifact.has("size") ? artifact.get("size").getAsLong() : -1;
 
             Path localPath = baseDir.resolve(path);
+            // Indexed libraries are trusted on size and mtime, so a warm start hashes nothing
+            if (sha1 != null && index.isVerified(localPath, size, sha1)) continue;
             if (!Files.exists(localPath)) {
+                if (url.isEmpty()) continue;
                 LOGGER.info("Downloading missing library: " + path);
-                Files.createDirectories(localPath.getParent());
-                DownloadManager.downloadFile(url, localPath);
+                ArtifactStore.fetch(url, sha1, size, localPath, null);
+            } else if (sha1 == null) {
+                continue;
+            } else if (!ArtifactStore.adopt(sha1, localPath)) {
+                if (url.isEmpty()) continue;
+                LOGGER.warning("Library does not match its hash, downloading again: " + path);
+                ArtifactStore.fetch(url, sha1, size, localPath, null);
             }
+            if (sha1 != null) index.record(localPath, size, sha1);
         }
+        index.save();
     }
 
 
@@ -68,30 +93,82 @@ public class ForgeRunner implements GameRunner {
         Files.createDirectories(installerDir);
         Path installerJar = installerDir.resolve(vanillaVersion + "-" + forgeBuild + "-installer.jar");
 
-        if (!Files.exists(installerJar)) {
-            String url = ForgeFetcher.getForgeInstallerUrl(vanillaVersion + "-" + forgeBuild);
-            DownloadManager.downloadFile(url, installerJar);
+        try {
+            // The installer, Java and the vanilla metadata do not depend on each other: fetch them together
+            if (ConnectivityService.isOnline()) {
+                VersionHandler.resolveMetadata(vanillaVersion, true);
+            }
+            installerDownload = start("forge-installer", () -> {
+                if (!Files.exists(installerJar)) {
+                    String url = ForgeFetcher.getForgeInstallerUrl(vanillaVersion + "-" + forgeBuild);
+                    DownloadManager.downloadFile(url, installerJar, true);
+                }
+                return null;
+            });
+            String configuredJava = SettingsUtil.getJavaPath();
+            javaDownload = configuredJava.isEmpty() || !new File(configuredJava).exists()
+                    ? start("forge-java", () -> JavaManager.JavaPath(vanillaVersion))
+                    : CompletableFuture.completedFuture(Paths.get(configuredJava));
+            // A cancel() that ran before the futures were published could not stop them
+            if (cancelled) cancel();
+            String javaExec = await(javaDownload).toString();
+            await(installerDownload);
+            if (cancelled) return;
+
+            // Run Forge installer
+            updateStatus("Checking forge Libs... support Forge through https://www.patreon.com/LexManos/");
+            ProcessBuilder pb = new ProcessBuilder(
+                    javaExec, "-jar", installerJar.toString(),
+                    "--installClient", baseDir.toString()
+            );
+            pb.inheritIO();
+            Process p = pb.start();
+            installerProcess = p;
+            if (cancelled) p.destroy();
+            p.waitFor();
+            if (cancelled) return;
+
+            ensureForgeLibraries(forgeVersion, baseDir.resolve("libraries"));
+            LOGGER.info("Done Checking libs");
+            VanillaRunner vanillaRunner = new VanillaRunner(vanillaVersion);
+            vanillaRunner.setForgeModLibraries(forgeVersion); // inject Forge libraries and jar
+            this.vanillaRunner = vanillaRunner;
+            // Checked after publishing, so a cancel() either sees the runner or is seen here
+            if (cancelled) return;
+            vanillaRunner.launch(playerName, progressBar, progressLabel);
+        } catch (Exception e) {
+            if (!cancelled) throw e;
+            LOGGER.info("Forge launch of " + version + " cancelled");
+        }
+    }
+
+    /** Runs {@code work} on its own virtual thread; cancelling the returned future interrupts it. */
+    private static <T> Future<T> start(String name, Callable<T> work) {
+        FutureTask<T> task = new FutureTask<>(work);
+        Thread.ofVirtual().name(name).start(task);
+        return task;
+    }
+
+    private static <T> T await(Future<T> task) throws Exception {
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
         }
+    }
 
-        // Run Forge installer
-        String javaExec = SettingsUtil.getJavaPath();
-        if (javaExec.isEmpty() || !new File(javaExec).exists()) {
-            javaExec = JavaManager.JavaPath(vanillaVersion).toString();
+    @Override
+    public void cancel() {
+        cancelled = true;
+        Future<?> installer = installerDownload;
+        if (installer != null) installer.cancel(true);
+        Future<Path> java = javaDownload;
+        if (java != null) java.cancel(true);
+        Process process = installerProcess;
+        if (process != null) process.destroy();
+        VanillaRunner current = vanillaRunner;
+        if (current != null) {
+            current.cancel();
         }
-        
-        updateStatus("Checking forge Libs... support Forge through https://www.patreon.com/LexManos/");
-        ProcessBuilder pb = new ProcessBuilder(
-                javaExec, "-jar", installerJar.toString(),
-                "--installClient", baseDir.toString()
-        );
-        pb.inheritIO();
-        Process p = pb.start();
-        p.waitFor();
-
-        ensureForgeLibraries(forgeVersion, baseDir.resolve("libraries"));
-        LOGGER.info("Done Checking libs");
-        VanillaRunner vanillaRunner = new VanillaRunner(vanillaVersion);
-        vanillaRunner.setForgeModLibraries(forgeVersion); // inject Forge libraries and jar
-        vanillaRunner.launch(playerName, progressBar, progressLabel);
     }
 }
@@ -5,6 +5,9 @@ import javafx.scene.control.ProgressBar;
 
 public interface GameRunner {
     void launch(String playerName, ProgressBar progressBar, Label progressLabel) throws Exception;
+
+    /** Stops any downloads this runner still has going; a game that already started keeps running. */
+    default void cancel() {}
     
     public static String humanReadableSize(long bytes) {
         if (bytes < 1024) return bytes + " B";
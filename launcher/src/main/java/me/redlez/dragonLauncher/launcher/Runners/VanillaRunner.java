@@ -18,6 +18,8 @@ public class VanillaRunner implements GameRunner {
 	private String forgeVersion = null;
 	private static LoggerUtil LOGGER = new LoggerUtil("VanillaRunner");
 	private final Path baseDir = Paths.get(System.getProperty("user.home"), ".minecraft");
+	private volatile DownloadManager session;
+	private volatile boolean cancelled;
 
 	public VanillaRunner(String version) {
 		this.version = version;
@@ -31,21 +33,24 @@ public class VanillaRunner implements GameRunner {
 	@Override
 	public void launch(String playerName, ProgressBar progressBar, Label progressLabel) throws Exception {
 		DownloadManager dM = new DownloadManager(version);
+		session = dM;
+		if (cancelled) {
+			dM.cancel();
+			return;
+		}
 		dM.setDownloadListener(new DownloadListener() {
 			@Override
-			public void onByteProgress(String fileName, long fileDownloaded, long globalDownloaded, long globalTotal) {
-				double progress = (double) globalDownloaded / globalTotal;
+			public void onProgress(ProgressSnapshot snapshot) {
+				String eta = snapshot.etaSeconds() < 0 ? "" : ", " + snapshot.etaSeconds() + "s left";
+				String text = "Downloaded: (" + GameRunner.humanReadableSize(snapshot.downloadedBytes()) + "/"
+						+ GameRunner.humanReadableSize(snapshot.totalBytes()) + ") "
+						+ GameRunner.humanReadableSize((long) snapshot.bytesPerSecond()) + "/s" + eta;
 				Platform.runLater(() -> {
-					progressBar.setProgress(progress);
-					progressLabel.setText("Downloaded: (" + GameRunner.humanReadableSize(globalDownloaded) + "/"
-							+ GameRunner.humanReadableSize(globalTotal) + ")");
+					progressBar.setProgress(snapshot.fraction());
+					progressLabel.setText(text);
 				});
 			}
 
-			@Override
-			public void onProgress(String fileName, long globalDownloaded, long globalTotal) {
-			}
-
 			@Override
 			public void onError(String fileName, Exception e, long globalDownloaded, long globalTotal) {
 				Platform.runLater(() -> progressLabel.setText("Download failed for: " + fileName));
@@ -55,11 +60,17 @@ public class VanillaRunner implements GameRunner {
 
 		new Thread(() -> {
 			try {
-				if (dM.isOnline()) {
+				boolean online = ConnectivityService.isOnline();
+				if (online) {
 					dM.downloadAll();
-					dM.waitForCompletion();
+					dM.waitForCritical();
+				}
+				if (dM.isCancelled()) {
+					return;
 				}
-				if (dM.allFilesAvailableOffline(version)) {
+				// Offline the background assets can never arrive, so the game would start without sounds and textures
+				boolean ready = online ? dM.criticalFilesAvailable(version) : dM.allFilesAvailableOffline(version);
+				if (ready) {
 					Platform.runLater(() -> progressLabel.setText("Download complete! Launching..."));
 					new Thread(() -> {
 						try {
@@ -69,14 +80,35 @@ public class VanillaRunner implements GameRunner {
 						}
 					}).start();
 					Platform.runLater(() -> Main.getmc().toggleDownloadUi(false));
+				} else if (!online) {
+					Platform.runLater(() -> progressLabel.setText("Offline: game files are missing, connect to finish the download"));
 				}
+				if (online) {
+					// Remaining assets keep downloading at background priority while the game starts
+					dM.waitForCompletion();
+				}
+			} catch (DiskSpace.InsufficientSpaceException e) {
+				// After a cancel the label belongs to the next session
+				if (dM.isCancelled()) return;
+				LOGGER.error(e.getMessage());
+				Platform.runLater(() -> progressLabel.setText(e.getMessage()));
 			} catch (Exception e) {
+				if (dM.isCancelled()) return;
 				e.printStackTrace();
 				Platform.runLater(() -> progressLabel.setText("Download failed!"));
 			}
 		}).start();
 	}
 
+	@Override
+	public void cancel() {
+		cancelled = true;
+		DownloadManager current = session;
+		if (current != null) {
+			current.cancel();
+		}
+	}
+
 	private void launchMinecraft(String playerName, ProgressBar progressBar, Label progressLabel) {
 		try {
 			Path versionJsonPath = baseDir.resolve("versions").resolve(version).resolve(version + ".json");
@@ -306,6 +338,7 @@ public class VanillaRunner implements GameRunner {
 	}
 
 	private String getAssetId(String version) throws Exception {
-		return VersionHandler.getVersionMetadata(version, DownloadManager.isOnline()).assetsIndexId;
+		// The version JSON is on disk by now, so this is answered from the metadata cache
+		return VersionHandler.getVersionMetadata(version, false).assetsIndexId;
 	}
 }
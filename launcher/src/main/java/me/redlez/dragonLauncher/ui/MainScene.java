@@ -7,16 +7,16 @@ import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
 import me.redlez.dragonLauncher.launcher.GameLauncher;
+import me.redlez.dragonLauncher.utils.VersionCatalog;
 import me.redlez.dragonLauncher.utils.VersionHandler;
 
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
-import com.google.gson.JsonObject;
 
 public class MainScene {
 
     private final GameLauncher launcher = new GameLauncher();
-    private final VersionHandler vHandler = new VersionHandler();
 
     private ComboBox<String> versionBox = new ComboBox<>();
     private TextField playerName = new TextField();
@@ -116,6 +116,11 @@ public class MainScene {
 
 
     
+    /** Called when the window closes: stops downloads so the JVM can exit with resumable partials. */
+    public void shutdown() {
+        launcher.cancel();
+    }
+
     public void toggleDownloadUi(boolean isit) {
         playerName.setVisible(!isit);
         versionBox.setVisible(!isit);
@@ -129,32 +134,18 @@ public class MainScene {
     
     private void refresh() {
         try {
-            versionBox.getItems().clear();
-
-            JsonObject json = vHandler.fetchVersions();
+            VersionCatalog catalog = VersionCatalog.get();
             boolean includeSnapshots = snapshotBox.isSelected();
 
-            // Fetch forge versions once
-            Map<String, String> forgeVersions = vHandler.getForgeVersions();
-
-            for (var v : json.getAsJsonArray("versions")) {
-                JsonObject obj = v.getAsJsonObject();
-                String type = obj.get("type").getAsString();
-                String mcVersion = obj.get("id").getAsString();
-
-                if (includeSnapshots || "release".equals(type)) {
-                	
-                    versionBox.getItems().add(mcVersion);
-
-                    for (var entry : forgeVersions.entrySet()) {
-                        String fullVersion = entry.getKey();
-                        if (fullVersion.startsWith(mcVersion + "-")) {
-                            String forgeVer = fullVersion.substring(mcVersion.length() + 1);
-                            versionBox.getItems().add(mcVersion + " (Forge " + forgeVer + ")");
-                        }
-                    }
+            List<String> items = new ArrayList<>();
+            for (VersionHandler.VersionInfo v : includeSnapshots ? catalog.all() : catalog.ofType("release")) {
+                items.add(v.id);
+                for (String forgeVer : catalog.forgeBuilds(v.id)) {
+                    items.add(v.id + " (Forge " + forgeVer + ")");
                 }
             }
+            // One change event for the whole list
+            versionBox.getItems().setAll(items);
 
             if (!versionBox.getItems().isEmpty()) {
                 versionBox.getSelectionModel().selectFirst();
@@ -10,6 +10,8 @@ import java.lang.management.ManagementFactory;
 import java.nio.file.*;
 import java.util.Properties;
 
+import me.redlez.dragonLauncher.utils.SettingsUtil;
+
 import com.sun.management.OperatingSystemMXBean;
 
 public class SettingsUI {
@@ -31,7 +33,7 @@ public class SettingsUI {
 
      // --- RAM Slider ---
         OperatingSystemMXBean osBean = ManagementFactory.getPlatformMXBean(OperatingSystemMXBean.class);
-        long totalPhysicalMemory = osBean.getTotalPhysicalMemorySize();
+        long totalPhysicalMemory = osBean.getTotalMemorySize();
         long totalGB = totalPhysicalMemory / (1024 * 1024 * 1024);
 
         int defaultRam = Integer.parseInt(config.getProperty("ram", "2"));
@@ -77,6 +79,27 @@ public class SettingsUI {
         HBox sizeBox = new HBox(10, widthLabel, widthField, heightLabel, heightField);
         sizeBox.setAlignment(Pos.CENTER_LEFT);
 
+        // --- Download Limits (KB/s, 0 = unlimited) ---
+        TextField limitField = new TextField(config.getProperty("downloadLimitKBps", "0"));
+        TextField backgroundLimitField = new TextField(config.getProperty("backgroundLimitKBps", "0"));
+        limitField.setStyle("-fx-background-color: #2b2b2b; -fx-text-fill: white;");
+        backgroundLimitField.setStyle("-fx-background-color: #2b2b2b; -fx-text-fill: white;");
+        Label limitLabel = new Label("Download limit KB/s:");
+        limitLabel.setTextFill(Color.WHITE);
+        Label backgroundLimitLabel = new Label("Background assets KB/s:");
+        backgroundLimitLabel.setTextFill(Color.WHITE);
+        HBox limitBox = new HBox(10, limitLabel, limitField, backgroundLimitLabel, backgroundLimitField);
+        limitBox.setAlignment(Pos.CENTER_LEFT);
+
+        // --- LAN cache (another launcher running with --cache-proxy) ---
+        TextField cacheProxyField = new TextField(config.getProperty("cacheProxy", ""));
+        cacheProxyField.setPromptText("http://host:25590");
+        cacheProxyField.setStyle("-fx-background-color: #2b2b2b; -fx-text-fill: white;");
+        Label cacheProxyLabel = new Label("LAN cache:");
+        cacheProxyLabel.setTextFill(Color.WHITE);
+        HBox cacheProxyBox = new HBox(10, cacheProxyLabel, cacheProxyField);
+        cacheProxyBox.setAlignment(Pos.CENTER_LEFT);
+
         // --- Advanced Toggle (Game Args) ---
         TextArea gameArgsArea = new TextArea(config.getProperty("gameArgs", ""));
         gameArgsArea.setPromptText("Game Arguments (advanced)");
@@ -90,11 +113,12 @@ public class SettingsUI {
         // --- Apply & Back Buttons ---
         Button applyBtn = new Button("Apply");
         applyBtn.setStyle("-fx-background-color: #e74c3c; -fx-text-fill: white;");
-        applyBtn.setOnAction(e -> saveConfig(ramSlider, javaPathField, widthField, heightField, gameArgsArea));
+        applyBtn.setOnAction(e -> saveConfig(ramSlider, javaPathField, widthField, heightField, gameArgsArea,
+                limitField, backgroundLimitField, cacheProxyField));
         HBox buttons = new HBox(10, applyBtn);
         buttons.setAlignment(Pos.CENTER_RIGHT);
 
-        root.getChildren().addAll(ramBox, javaBox, sizeBox, advancedBtn, gameArgsArea, buttons);
+        root.getChildren().addAll(ramBox, javaBox, sizeBox, limitBox, cacheProxyBox, advancedBtn, gameArgsArea, buttons);
         return root;
     }
 
@@ -110,18 +134,24 @@ public class SettingsUI {
         }
     }
 
-    private void saveConfig(Slider ramSlider, TextField javaPath, TextField width, TextField height, TextArea gameArgs) {
+    private void saveConfig(Slider ramSlider, TextField javaPath, TextField width, TextField height, TextArea gameArgs,
+                            TextField downloadLimit, TextField backgroundLimit, TextField cacheProxy) {
         try {
             config.setProperty("ram", String.valueOf((int) ramSlider.getValue()));
             config.setProperty("javaPath", javaPath.getText().trim());
             config.setProperty("width", width.getText().trim());
             config.setProperty("height", height.getText().trim());
             config.setProperty("gameArgs", gameArgs.getText().trim());
+            config.setProperty("downloadLimitKBps", downloadLimit.getText().trim());
+            config.setProperty("backgroundLimitKBps", backgroundLimit.getText().trim());
+            config.setProperty("cacheProxy", cacheProxy.getText().trim());
 
             Files.createDirectories(configPath.getParent());
             try (OutputStream out = Files.newOutputStream(configPath)) {
                 config.store(out, "DragonLauncher Configuration");
             }
+            // Running downloads follow the new limits right away
+            SettingsUtil.reload();
         } catch (IOException ex) {
             ex.printStackTrace();
         }
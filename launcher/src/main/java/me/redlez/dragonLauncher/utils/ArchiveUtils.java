@@ -45,7 +45,7 @@ public class ArchiveUtils {
              TarArchiveInputStream tarIn = new TarArchiveInputStream(gzi)) {
 
             TarArchiveEntry entry;
-            while ((entry = tarIn.getNextTarEntry()) != null) {
+            while ((entry = tarIn.getNextEntry()) != null) {
                 Path newPath = targetDir.resolve(entry.getName()).normalize();
                 if (!newPath.startsWith(targetDir)) {
                     throw new IOException("Bad tar entry: " + entry.getName());
@@ -0,0 +1,151 @@
+package me.redlez.dragonLauncher.utils;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Machine-wide content-addressed store: every verified blob lives once under
+ * {@code ~/.dragonLauncher/store/objects/<first two hex>/<sha1>} and install paths are hard links to it.
+ * A library shared by ten versions or instances is downloaded once and stored once.
+ */
+public final class ArtifactStore {
+
+    private static final LoggerUtil LOGGER = new LoggerUtil("ArtifactStore");
+    private static final Path OBJECTS = Paths.get(System.getProperty("user.home"), ".dragonLauncher", "store", "objects");
+
+    // Blobs hashed or written by this process; any other blob is checked once before it is reused
+    private static final Set<String> VERIFIED = ConcurrentHashMap.newKeySet();
+
+    private ArtifactStore() {}
+
+    /** Where blobs are kept; their bytes are written on this filesystem. */
+    public static Path root() {
+        return OBJECTS;
+    }
+
+    public static Path blob(String sha1) {
+        String hash = sha1.toLowerCase();
+        return OBJECTS.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    /** Cheap presence check by size, for planning; use {@link #verify} before handing the blob out. */
+    public static boolean contains(String sha1, long size) {
+        try {
+            return Files.size(blob(sha1)) == size;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * True when the blob for {@code sha1} is present and intact. Its content is hashed the first
+     * time this process asks; a blob that does not match is deleted. {@code size} may be -1.
+     */
+    public static boolean verify(String sha1, long size) throws IOException {
+        String hash = sha1.toLowerCase();
+        Path blob = blob(hash);
+        if (!Files.isRegularFile(blob) || (size >= 0 && Files.size(blob) != size)) return false;
+        if (VERIFIED.contains(hash)) return true;
+
+        if (!hash.equals(HashUtil.sha1(blob))) {
+            LOGGER.warning("Stored " + hash + " is corrupt, removing it");
+            Files.deleteIfExists(blob);
+            return false;
+        }
+        VERIFIED.add(hash);
+        return true;
+    }
+
+    /**
+     * Makes {@code target} hold the blob's content, hard-linking where the filesystem allows it
+     * and copying otherwise.
+     */
+    public static void materialize(String sha1, Path target) throws IOException {
+        link(blob(sha1), target);
+    }
+
+    /** Atomically replaces {@code target} with a hard link to {@code source}, or a copy where links are not possible. */
+    static void link(Path source, Path target) throws IOException {
+        if (Files.exists(target) && Files.isSameFile(source, target)) return;
+
+        Files.createDirectories(target.getParent());
+        Path staging = target.resolveSibling(target.getFileName() + ".link");
+        Files.deleteIfExists(staging);
+        try {
+            Files.createLink(staging, source);
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            // Different volume or a filesystem without hard links
+            copy(source, staging);
+        }
+        Files.move(staging, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Registers an existing file as the blob for {@code sha1} once its content is checked against
+     * the hash. Only links are used here: copying would double the disk usage for no gain.
+     *
+     * @return false when the file does not match {@code sha1}
+     */
+    public static boolean adopt(String sha1, Path file) throws IOException {
+        String hash = sha1.toLowerCase();
+        Path blob = blob(hash);
+        // Already linked to its blob: checked like any other reused blob
+        if (Files.exists(blob) && Files.isSameFile(blob, file)) return verify(hash, -1);
+        if (!hash.equals(HashUtil.sha1(file))) return false;
+
+        VERIFIED.add(hash);
+        if (Files.exists(blob)) return true;
+        try {
+            Files.createDirectories(blob.getParent());
+            Files.createLink(blob, file);
+        } catch (UnsupportedOperationException | IOException e) {
+            // not linkable, keep the file where it is
+        }
+        return true;
+    }
+
+    /**
+     * Puts {@code url} at {@code target}, downloading into the store only when no verified blob exists yet.
+     *
+     * @return the SHA-1 of the file now at {@code target}
+     */
+    public static String fetch(String url, String sha1, long size, Path target, FileDownloader.ProgressSink sink)
+            throws IOException, InterruptedException {
+        if (sha1 == null || sha1.length() != 40) {
+            return FileDownloader.fetch(url, target, size, sha1, sink);
+        }
+
+        // Two targets sharing one blob coalesce on the blob's download; two requests for the same
+        // target also coalesce here so they do not race on the staging link
+        return FileDownloader.shared(target, sha1, () -> {
+            if (verify(sha1, size)) {
+                LOGGER.info("Reusing stored " + sha1 + " for " + target.getFileName());
+            } else {
+                FileDownloader.fetch(url, blob(sha1), size, sha1, sink);
+                VERIFIED.add(sha1.toLowerCase());
+            }
+            materialize(sha1, target);
+            return sha1.toLowerCase();
+        });
+    }
+
+    private static void copy(Path source, Path target) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = 0;
+            long size = in.size();
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+        }
+    }
+}
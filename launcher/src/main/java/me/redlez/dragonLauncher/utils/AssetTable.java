@@ -0,0 +1,166 @@
+package me.redlez.dragonLauncher.utils;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import com.google.gson.stream.JsonReader;
+
+import me.redlez.dragonLauncher.utils.VersionHandler.Downloadable;
+
+/**
+ * The objects of an asset index as parallel arrays: 20 raw hash bytes, a size and a name per
+ * object. An index holds thousands of objects, so no per-object instances are kept; URLs and
+ * paths are derived when an object is actually downloaded or checked.
+ */
+public final class AssetTable {
+
+    private static final String RESOURCES_URL = "https://resources.download.minecraft.net/";
+    private static final int HASH_BYTES = 20;
+
+    public static final AssetTable EMPTY = new AssetTable(null, new byte[0], new long[0], new String[0], 0);
+
+    private final Path objectsDir;
+    private final byte[] hashes;
+    private final long[] sizes;
+    private final String[] names;
+    private final int count;
+    private final long totalSize;
+
+    private AssetTable(Path objectsDir, byte[] hashes, long[] sizes, String[] names, int count) {
+        this.objectsDir = objectsDir;
+        this.hashes = hashes;
+        this.sizes = sizes;
+        this.names = names;
+        this.count = count;
+        long total = 0;
+        for (int i = 0; i < count; i++) total += sizes[i];
+        this.totalSize = total;
+    }
+
+    /**
+     * Streams {@code indexFile} without building a JSON tree. Objects land under {@code objectsDir}.
+     */
+    public static AssetTable parse(Path indexFile, Path objectsDir) throws IOException {
+        int capacity = 4096;
+        byte[] hashes = new byte[capacity * HASH_BYTES];
+        long[] sizes = new long[capacity];
+        String[] names = new String[capacity];
+        int count = 0;
+
+        try (Reader in = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8);
+             JsonReader reader = new JsonReader(in)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!reader.nextName().equals("objects")) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (count == capacity) {
+                        capacity *= 2;
+                        hashes = Arrays.copyOf(hashes, capacity * HASH_BYTES);
+                        sizes = Arrays.copyOf(sizes, capacity);
+                        names = Arrays.copyOf(names, capacity);
+                    }
+                    names[count] = reader.nextName();
+                    String hash = null;
+                    long size = -1;
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        switch (reader.nextName()) {
+                            case "hash" -> hash = reader.nextString();
+                            case "size" -> size = reader.nextLong();
+                            default -> reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                    if (hash == null || hash.length() != HASH_BYTES * 2) {
+                        throw new IOException("Bad asset entry " + names[count] + " in " + indexFile.getFileName());
+                    }
+                    decodeHex(hash, hashes, count * HASH_BYTES);
+                    sizes[count] = size;
+                    count++;
+                }
+                reader.endObject();
+            }
+            reader.endObject();
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("Malformed asset index " + indexFile.getFileName(), e);
+        }
+        return new AssetTable(objectsDir, hashes, sizes, names, count);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public long totalSize() {
+        return totalSize;
+    }
+
+    public String name(int i) {
+        return names[i];
+    }
+
+    public long objectSize(int i) {
+        return sizes[i];
+    }
+
+    public String hash(int i) {
+        return HashUtil.toHex(Arrays.copyOfRange(hashes, i * HASH_BYTES, (i + 1) * HASH_BYTES));
+    }
+
+    /** Object {@code i} as a download, built on demand and meant to be short-lived. */
+    public Downloadable get(int i) {
+        String hash = hash(i);
+        String prefix = hash.substring(0, 2);
+        return new Downloadable(RESOURCES_URL + prefix + "/" + hash, hash, sizes[i],
+                objectsDir.resolve(prefix).resolve(hash));
+    }
+
+    /** Appends the table to a {@link MetadataCache} snapshot. */
+    void write(DataOutputStream out) throws IOException {
+        MetadataCache.writeString(out, objectsDir == null ? null : objectsDir.toString());
+        out.writeInt(count);
+        out.write(hashes, 0, count * HASH_BYTES);
+        for (int i = 0; i < count; i++) {
+            out.writeLong(sizes[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            MetadataCache.writeString(out, names[i]);
+        }
+    }
+
+    /** Reads a table written by {@link #write}; the hashes are copied out of the buffer in one go. */
+    static AssetTable read(ByteBuffer in) {
+        String objectsDir = MetadataCache.readString(in);
+        int count = in.getInt();
+        if (count == 0) return EMPTY;
+        byte[] hashes = new byte[count * HASH_BYTES];
+        in.get(hashes);
+        long[] sizes = new long[count];
+        in.asLongBuffer().get(sizes);
+        in.position(in.position() + count * Long.BYTES);
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = MetadataCache.readString(in);
+        }
+        return new AssetTable(Path.of(objectsDir), hashes, sizes, names, count);
+    }
+
+    private static void decodeHex(String hex, byte[] target, int offset) throws IOException {
+        for (int i = 0; i < HASH_BYTES; i++) {
+            int high = Character.digit(hex.charAt(i * 2), 16);
+            int low = Character.digit(hex.charAt(i * 2 + 1), 16);
+            if (high < 0 || low < 0) throw new IOException("Bad asset hash " + hex);
+            target[offset + i] = (byte) (high << 4 | low);
+        }
+    }
+}
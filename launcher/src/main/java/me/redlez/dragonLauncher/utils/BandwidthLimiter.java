@@ -0,0 +1,97 @@
+package me.redlez.dragonLauncher.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket shared by every transfer of one class. Bytes are charged after each buffer is
+ * read; a thread that drives the bucket into debt sleeps until the debt is paid, so the
+ * aggregate rate holds however many transfers run. A rate of 0 means unlimited.
+ * <p>
+ * {@link #FOREGROUND} caps all downloads; {@link #BACKGROUND} additionally caps deferred work
+ * such as asset objects, so the game and the rest of the machine keep some headroom. Bytes charged
+ * to {@link #BACKGROUND} count against {@link #FOREGROUND} too.
+ */
+public final class BandwidthLimiter {
+
+    public static final BandwidthLimiter FOREGROUND = new BandwidthLimiter(null);
+    public static final BandwidthLimiter BACKGROUND = new BandwidthLimiter(FOREGROUND);
+
+    private static final int MIN_CHUNK = 16 * 1024;
+    // Reads are sized to about this much time at the current rate, which keeps the flow smooth
+    private static final long CHUNK_MILLIS = 50;
+    private static final long BURST_MILLIS = 250;
+
+    static {
+        reload();
+    }
+
+    private final BandwidthLimiter parent;
+    private long rate;
+    private double tokens;
+    private long lastRefill = System.nanoTime();
+
+    private BandwidthLimiter(BandwidthLimiter parent) {
+        this.parent = parent;
+    }
+
+    /** Applies the limits from {@link SettingsUtil}; running transfers pick them up on their next buffer. */
+    public static void reload() {
+        FOREGROUND.setRate(SettingsUtil.getDownloadLimitKBps() * 1024L);
+        BACKGROUND.setRate(SettingsUtil.getBackgroundLimitKBps() * 1024L);
+    }
+
+    public synchronized void setRate(long bytesPerSecond) {
+        refill();
+        rate = Math.max(0, bytesPerSecond);
+        tokens = Math.min(tokens, burst());
+    }
+
+    public synchronized long getRate() {
+        return rate;
+    }
+
+    /**
+     * How many bytes the next read should ask for, at most {@code max}; the tighter of this limit
+     * and the one it counts against.
+     */
+    public int chunkSize(int max) {
+        int size;
+        synchronized (this) {
+            size = rate <= 0 ? max : (int) Math.max(MIN_CHUNK, Math.min(max, rate * CHUNK_MILLIS / 1000));
+        }
+        return parent == null ? size : parent.chunkSize(size);
+    }
+
+    /**
+     * Charges {@code bytes} and blocks while the bucket is in debt. An interrupt ends the wait
+     * early and stays set, so the transfer stops on its next channel operation.
+     */
+    public void consume(int bytes) {
+        if (parent != null) parent.consume(bytes);
+        long waitNanos;
+        synchronized (this) {
+            if (rate <= 0) return;
+            refill();
+            tokens -= bytes;
+            if (tokens >= 0) return;
+            waitNanos = (long) (-tokens * 1e9 / rate);
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        if (rate > 0) {
+            tokens = Math.min(burst(), tokens + (now - lastRefill) * rate / 1e9);
+        }
+        lastRefill = now;
+    }
+
+    private double burst() {
+        return Math.max(MIN_CHUNK, rate * BURST_MILLIS / 1000.0);
+    }
+}
@@ -0,0 +1,57 @@
+package me.redlez.dragonLauncher.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of large heap buffers for the download and hashing paths. Response bodies arrive as an
+ * InputStream, so a plain array takes them with one copy and MessageDigest hashes it in place;
+ * 256 KB per write means far fewer syscalls than the old 8 KB loop.
+ */
+final class BufferPool {
+
+    static final int BUFFER_SIZE = 256 * 1024;
+    private static final int MAX_POOLED = 32;
+
+    private static final Queue<byte[]> POOL = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger POOLED = new AtomicInteger();
+
+    private BufferPool() {}
+
+    static byte[] acquire() {
+        byte[] buffer = POOL.poll();
+        if (buffer == null) {
+            return new byte[BUFFER_SIZE];
+        }
+        POOLED.decrementAndGet();
+        return buffer;
+    }
+
+    static void release(byte[] buffer) {
+        if (buffer == null) return;
+        if (POOLED.incrementAndGet() <= MAX_POOLED) {
+            POOL.offer(buffer);
+        } else {
+            POOLED.decrementAndGet();
+        }
+    }
+
+    /**
+     * Reads from {@code source} until the first {@code length} bytes of {@code buffer} are
+     * filled or the stream ends, so each following write covers as many bytes as possible.
+     *
+     * @return bytes read, or -1 if the stream ended before any byte was read
+     */
+    static int fill(InputStream source, byte[] buffer, int length) throws IOException {
+        int total = 0;
+        while (total < length) {
+            int read = source.read(buffer, total, length - total);
+            if (read < 0) return total == 0 ? -1 : total;
+            total += read;
+        }
+        return total;
+    }
+}
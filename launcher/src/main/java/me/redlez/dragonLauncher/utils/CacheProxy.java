@@ -0,0 +1,355 @@
+package me.redlez.dragonLauncher.utils;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Executors;
+
+/**
+ * LAN-wide artifact cache. One launcher started with {@code --cache-proxy [port]} answers
+ * {@code GET /fetch?url=<origin url>&sha1=<hash>&size=<bytes>} from its {@link ArtifactStore}
+ * and downloads from the origin on a miss; the other machines set {@code cacheProxy} to its
+ * address and {@link MirrorRouter} asks it before any internet source.
+ * <p>
+ * Only SHA-1 verified files are served, so a miss is answered once the whole file is in, and
+ * concurrent misses for one file share a single upstream download. Files without a published
+ * hash (JDK archives, Forge installers and metadata) are cached by URL under the hash they were
+ * downloaded with, for {@code maxAge} seconds.
+ */
+public final class CacheProxy {
+
+    private static final LoggerUtil LOGGER = new LoggerUtil("CacheProxy");
+
+    public static final int DEFAULT_PORT = 25590;
+
+    private static final Path STORE = Paths.get(System.getProperty("user.home"), ".dragonLauncher", "store");
+    private static final Path URL_INDEX = STORE.resolve("urls.properties");
+    private static final Path INCOMING = STORE.resolve("incoming");
+
+    private static final long DEFAULT_MAX_AGE_SECONDS = 24 * 3600;
+
+    // Only artifact hosts are fetched: the cache must not become an open proxy into the LAN
+    private static final Set<String> ALLOWED_HOSTS = Set.of(
+            "piston-meta.mojang.com", "piston-data.mojang.com", "launchermeta.mojang.com", "launcher.mojang.com",
+            "libraries.minecraft.net", "resources.download.minecraft.net",
+            "maven.minecraftforge.net", "files.minecraftforge.net", "api.adoptium.net");
+
+    private static final SingleFlight<String, String> RESOLVING = new SingleFlight<>();
+    private static final Properties urlIndex = new Properties();
+
+    private static volatile HttpServer server;
+
+    private CacheProxy() {}
+
+    /** Starts serving the local store on {@code port}; the server's threads keep the process alive. */
+    public static synchronized void serve(int port) throws IOException {
+        if (server != null) return;
+        loadIndex();
+        HttpServer http = HttpServer.create(new InetSocketAddress(port), 0);
+        http.createContext("/fetch", CacheProxy::handle);
+        http.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        // Set before the first request: the cache's own downloads must go to the origin, not to itself
+        server = http;
+        http.start();
+        LOGGER.info("Serving the artifact cache on port " + port);
+    }
+
+    /**
+     * Where to ask the configured LAN cache for {@code url}, or null when there is none, this
+     * process is the cache, or the cache would refuse the host. {@code maxAgeSeconds} of -1 leaves
+     * the cache's default for files without a hash.
+     */
+    public static URI uriFor(String url, String sha1, long size, long maxAgeSeconds) {
+        if (server != null || !isAllowed(url)) return null;
+        String base = SettingsUtil.getCacheProxy();
+        if (base.isEmpty()) return null;
+
+        StringBuilder uri = new StringBuilder(base).append("/fetch?url=")
+                .append(URLEncoder.encode(url, StandardCharsets.UTF_8));
+        if (isHash(sha1)) uri.append("&sha1=").append(sha1.toLowerCase());
+        if (size > 0) uri.append("&size=").append(size);
+        if (maxAgeSeconds >= 0) uri.append("&maxAge=").append(maxAgeSeconds);
+        return URI.create(uri.toString());
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                reply(exchange, 405);
+                return;
+            }
+
+            Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+            String url = params.get("url");
+            String sha1 = params.get("sha1");
+            if (url == null || !isAllowed(url) || (sha1 != null && !isHash(sha1))) {
+                reply(exchange, url == null || sha1 != null && !isHash(sha1) ? 400 : 403);
+                return;
+            }
+            long size = parseLong(params.get("size"), -1);
+            long maxAge = parseLong(params.get("maxAge"), DEFAULT_MAX_AGE_SECONDS);
+
+            String hash;
+            boolean hit;
+            try {
+                if (method.equals("HEAD")) {
+                    head(exchange, url, sha1 == null ? null : sha1.toLowerCase(), size, maxAge);
+                    return;
+                }
+                hit = sha1 != null ? isStored(sha1, size) : freshHash(url, maxAge) != null;
+                hash = sha1 != null ? resolve(url, sha1.toLowerCase(), size) : resolve(url, maxAge);
+            } catch (HttpStatusException e) {
+                // A 404 from the origin stays a 404 so the client does not retry it elsewhere
+                reply(exchange, e.getStatus() >= 400 && e.getStatus() < 500 && e.getStatus() != 429 ? e.getStatus() : 502);
+                return;
+            } catch (IOException e) {
+                LOGGER.warning("Failed to fetch " + url + ": " + e);
+                reply(exchange, 502);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            send(exchange, hash, hit);
+        } catch (IOException e) {
+            // The client went away mid-transfer
+        }
+    }
+
+    private static String resolve(String url, String sha1, long size) throws IOException, InterruptedException {
+        // Every client downloads what is served here, so a damaged blob is replaced rather than passed on
+        if (!ArtifactStore.verify(sha1, size)) {
+            LOGGER.info("Miss, downloading " + url);
+            // Verified against sha1 and coalesced with any other request for the same blob
+            FileDownloader.fetch(url, ArtifactStore.blob(sha1), size, sha1, null);
+        }
+        return sha1;
+    }
+
+    private static String resolve(String url, long maxAge) throws IOException, InterruptedException {
+        String known = freshHash(url, maxAge);
+        if (known != null) return known;
+
+        return RESOLVING.run(url, () -> {
+            String again = freshHash(url, maxAge);
+            if (again != null) return again;
+
+            LOGGER.info("Miss, downloading " + url);
+            Path incoming = INCOMING.resolve(HashUtil.toHex(HashUtil.newSha1().digest(url.getBytes(StandardCharsets.UTF_8))));
+            String fetched = FileDownloader.fetch(url, incoming, -1, null, null);
+            Path blob = ArtifactStore.blob(fetched);
+            Files.createDirectories(blob.getParent());
+            if (Files.exists(blob)) {
+                Files.delete(incoming);
+            } else {
+                Files.move(incoming, blob, StandardCopyOption.ATOMIC_MOVE);
+            }
+            record(url, fetched);
+            return fetched;
+        });
+    }
+
+    /**
+     * Answers a HEAD without filling the cache: from the store when the file is there, otherwise
+     * with what the origin says about it.
+     */
+    private static void head(HttpExchange exchange, String url, String sha1, long size, long maxAge)
+            throws IOException, InterruptedException {
+        String stored = sha1 != null ? (isStored(sha1, size) ? sha1 : null) : freshHash(url, maxAge);
+        if (stored != null) {
+            send(exchange, stored, true);
+            return;
+        }
+
+        HttpResponse<Void> upstream = HttpUtil.send(HttpUtil.request(url)
+                .method("HEAD", HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.discarding());
+        if (upstream.statusCode() / 100 != 2) {
+            throw new HttpStatusException(upstream);
+        }
+        long length = upstream.headers().firstValueAsLong("Content-Length").orElse(size);
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", "application/octet-stream");
+        headers.set("Accept-Ranges", "bytes");
+        headers.set("X-Cache", "MISS");
+        if (sha1 != null) headers.set("ETag", "\"" + sha1 + "\"");
+        if (length >= 0) headers.set("Content-Length", String.valueOf(length));
+        exchange.sendResponseHeaders(200, -1);
+    }
+
+    private static void send(HttpExchange exchange, String sha1, boolean hit) throws IOException {
+        Path blob = ArtifactStore.blob(sha1);
+        long length = Files.size(blob);
+        String etag = "\"" + sha1 + "\"";
+
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", "application/octet-stream");
+        headers.set("ETag", etag);
+        headers.set("Accept-Ranges", "bytes");
+        headers.set("X-Cache", hit ? "HIT" : "MISS");
+
+        long start = 0;
+        long end = length - 1;
+        int status = 200;
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                headers.set("Content-Range", "bytes */" + length);
+                reply(exchange, 416);
+                return;
+            }
+            start = bounds[0];
+            end = bounds[1];
+            status = 206;
+            headers.set("Content-Range", "bytes " + start + "-" + end + "/" + length);
+        }
+
+        long count = end - start + 1;
+        if (exchange.getRequestMethod().equals("HEAD") || count <= 0) {
+            headers.set("Content-Length", String.valueOf(Math.max(0, count)));
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, count);
+        try (FileChannel channel = FileChannel.open(blob, StandardOpenOption.READ);
+             OutputStream out = exchange.getResponseBody();
+             WritableByteChannel target = Channels.newChannel(out)) {
+            long position = start;
+            while (position <= end) {
+                position += channel.transferTo(position, end - position + 1, target);
+            }
+        }
+    }
+
+    /** Single range only, which is all the launcher asks for: {@code bytes=a-}, {@code bytes=a-b} or {@code bytes=-n}. */
+    private static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.contains(",")) return null;
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) return null;
+        try {
+            long start;
+            long end;
+            if (dash == 0) {
+                long suffix = Long.parseLong(spec.substring(1));
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, dash));
+                end = dash == spec.length() - 1 ? length - 1 : Math.min(length - 1, Long.parseLong(spec.substring(dash + 1)));
+            }
+            return start <= end && start < length ? new long[]{start, end} : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // --- URL index for files without a published hash ---
+
+    private static void loadIndex() {
+        synchronized (urlIndex) {
+            if (!Files.exists(URL_INDEX)) return;
+            try (InputStream in = Files.newInputStream(URL_INDEX)) {
+                urlIndex.load(in);
+            } catch (IOException e) {
+                LOGGER.warning("Failed to read cache index: " + e.getMessage());
+            }
+        }
+    }
+
+    private static String freshHash(String url, long maxAgeSeconds) {
+        String value;
+        synchronized (urlIndex) {
+            value = urlIndex.getProperty(url);
+        }
+        if (value == null) return null;
+        // "<sha1> <fetched at millis>"
+        String[] parts = value.split(" ");
+        if (parts.length != 2 || System.currentTimeMillis() - parseLong(parts[1], 0) > maxAgeSeconds * 1000) return null;
+        return isStored(parts[0], -1) ? parts[0] : null;
+    }
+
+    private static void record(String url, String sha1) throws IOException {
+        synchronized (urlIndex) {
+            urlIndex.setProperty(url, sha1 + " " + System.currentTimeMillis());
+            Files.createDirectories(URL_INDEX.getParent());
+            try (OutputStream out = Files.newOutputStream(URL_INDEX)) {
+                urlIndex.store(out, "DragonLauncher cache proxy: url -> sha1 fetched-at");
+            }
+        }
+    }
+
+    // --- helpers ---
+
+    private static boolean isStored(String sha1, long size) {
+        try {
+            Path blob = ArtifactStore.blob(sha1);
+            return Files.isRegularFile(blob) && (size < 0 || Files.size(blob) == size);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static boolean isAllowed(String url) {
+        try {
+            URI uri = URI.create(url);
+            return "https".equals(uri.getScheme()) && ALLOWED_HOSTS.contains(uri.getHost());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static boolean isHash(String value) {
+        return value != null && value.length() == 40 && value.chars().allMatch(c -> Character.digit(c, 16) >= 0);
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null) return params;
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static long parseLong(String value, long fallback) {
+        if (value == null) return fallback;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private static void reply(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+    }
+}
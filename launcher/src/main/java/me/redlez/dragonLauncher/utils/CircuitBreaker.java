@@ -0,0 +1,80 @@
+package me.redlez.dragonLauncher.utils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-host breaker. After {@value #FAILURE_THRESHOLD} consecutive failures the host is parked:
+ * requests to it fail fast with {@link OpenException} until the cool-down ends, then requests are
+ * let through again. Success closes the breaker, another failure parks the host for twice as long.
+ */
+public final class CircuitBreaker {
+
+    private static final LoggerUtil LOGGER = new LoggerUtil("CircuitBreaker");
+
+    private static final int FAILURE_THRESHOLD = 5;
+    private static final long INITIAL_OPEN_MS = 5_000;
+    private static final long MAX_OPEN_MS = 60_000;
+
+    private static final Map<String, CircuitBreaker> BREAKERS = new ConcurrentHashMap<>();
+
+    private final String host;
+    private int consecutiveFailures;
+    private long openMs = INITIAL_OPEN_MS;
+    private long openUntil;
+
+    private CircuitBreaker(String host) {
+        this.host = host;
+    }
+
+    public static CircuitBreaker forHost(URI uri) {
+        String host = uri.getHost() == null ? "" : uri.getHost().toLowerCase();
+        return BREAKERS.computeIfAbsent(host, CircuitBreaker::new);
+    }
+
+    /** Thrown instead of sending a request to a parked host. */
+    public static class OpenException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private final long retryInMillis;
+
+        OpenException(String host, long retryInMillis) {
+            super("Host " + host + " is failing, parked for " + retryInMillis + " ms");
+            this.retryInMillis = retryInMillis;
+        }
+
+        public long getRetryInMillis() {
+            return retryInMillis;
+        }
+    }
+
+    public synchronized boolean allow() {
+        return System.currentTimeMillis() >= openUntil;
+    }
+
+    public synchronized long retryInMillis() {
+        return Math.max(0, openUntil - System.currentTimeMillis());
+    }
+
+    public synchronized void recordSuccess() {
+        if (consecutiveFailures >= FAILURE_THRESHOLD) {
+            LOGGER.info(host + " recovered");
+        }
+        consecutiveFailures = 0;
+        openMs = INITIAL_OPEN_MS;
+        openUntil = 0;
+    }
+
+    public synchronized void recordFailure() {
+        long now = System.currentTimeMillis();
+        consecutiveFailures++;
+        if (consecutiveFailures < FAILURE_THRESHOLD || now < openUntil) return;
+
+        // Failing again right after a cool-down: back off further
+        if (openUntil > 0) openMs = Math.min(MAX_OPEN_MS, openMs * 2);
+        openUntil = now + openMs;
+        LOGGER.warning(host + " parked for " + openMs + " ms after " + consecutiveFailures + " failures");
+    }
+}
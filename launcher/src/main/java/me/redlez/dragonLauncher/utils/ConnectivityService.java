@@ -0,0 +1,125 @@
+package me.redlez.dragonLauncher.utils;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.UnresolvedAddressException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cached answer to "can we reach the artifact hosts?".
+ * Probes run in the background against the hosts we actually download from, and every real
+ * request going through {@link HttpUtil} feeds the result, so callers never wait on a socket
+ * connect. Until the first probe answers, the network is assumed to be up.
+ */
+public final class ConnectivityService {
+
+    private static final LoggerUtil LOGGER = new LoggerUtil("ConnectivityService");
+
+    private static final List<URI> PROBE_TARGETS = List.of(
+            URI.create("https://piston-meta.mojang.com/"),
+            URI.create("https://libraries.minecraft.net/"),
+            URI.create("https://resources.download.minecraft.net/"));
+
+    private static final long PROBE_TIMEOUT_MS = 3000;
+    private static final long ONLINE_TTL_MS = 30_000;
+    // Re-check sooner while offline so reconnecting is noticed quickly
+    private static final long OFFLINE_TTL_MS = 5_000;
+
+    private record State(boolean online, long checkedAt) {}
+
+    private static volatile State state;
+    private static volatile CompletableFuture<Boolean> probe;
+
+    private ConnectivityService() {}
+
+    /**
+     * Last known connectivity. A stale answer is returned as is while a probe refreshes it in the background.
+     * Before the first probe finishes this is optimistically true; a failing download corrects it.
+     */
+    public static boolean isOnline() {
+        State current = state;
+        if (current == null) {
+            refresh();
+            return true;
+        }
+        long ttl = current.online() ? ONLINE_TTL_MS : OFFLINE_TTL_MS;
+        if (System.currentTimeMillis() - current.checkedAt() > ttl) {
+            refresh();
+        }
+        return current.online();
+    }
+
+    /**
+     * Starts a background probe unless one is already running.
+     */
+    public static synchronized CompletableFuture<Boolean> refresh() {
+        CompletableFuture<Boolean> running = probe;
+        if (running != null && !running.isDone()) return running;
+
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (URI target : PROBE_TARGETS) {
+            HttpRequest request = HttpUtil.request(target)
+                    .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                    .timeout(Duration.ofMillis(PROBE_TIMEOUT_MS))
+                    .build();
+            // Any HTTP status means the host answered; the first one settles the probe
+            HttpUtil.client().sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .orTimeout(PROBE_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                    .whenComplete((response, error) -> {
+                        if (error == null) {
+                            result.complete(true);
+                        } else if (failures.incrementAndGet() == PROBE_TARGETS.size()) {
+                            result.complete(false);
+                        }
+                    });
+        }
+        result.thenAccept(online -> update(online, "probe"));
+        probe = result;
+        return result;
+    }
+
+    /** Called for every response a real request received. */
+    static void reportSuccess() {
+        State current = state;
+        if (current == null || !current.online() || System.currentTimeMillis() - current.checkedAt() > 1000) {
+            update(true, "download");
+        }
+    }
+
+    /**
+     * Called when a real request failed. Connection-level failures trigger a re-probe rather than
+     * flipping to offline at once: one unreachable host does not mean the network is gone.
+     */
+    static void reportFailure(Throwable e) {
+        if (isConnectFailure(e)) {
+            refresh();
+        }
+    }
+
+    private static void update(boolean online, String source) {
+        State previous = state;
+        state = new State(online, System.currentTimeMillis());
+        if (previous == null || previous.online() != online) {
+            LOGGER.info((online ? "Online" : "Offline") + " (" + source + ")");
+        }
+    }
+
+    private static boolean isConnectFailure(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ConnectException || t instanceof HttpConnectTimeoutException
+                    || t instanceof UnknownHostException || t instanceof UnresolvedAddressException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
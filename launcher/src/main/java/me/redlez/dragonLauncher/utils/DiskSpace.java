@@ -0,0 +1,82 @@
+package me.redlez.dragonLauncher.utils;
+
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Checks that every filesystem an install writes to has room for it before the first byte is downloaded.
+ */
+public final class DiskSpace {
+
+    // Room for partial files, sidecars and whatever else writes to the disk meanwhile
+    private static final long HEADROOM_BYTES = 64L * 1024 * 1024;
+    private static final double HEADROOM_FRACTION = 0.02;
+
+    private DiskSpace() {}
+
+    public static class InsufficientSpaceException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public InsufficientSpaceException(String message) {
+            super(message);
+        }
+    }
+
+    /** Bytes an install plan still has to write, per filesystem. */
+    public static final class Requirement {
+        private final Map<FileStore, Long> bytes = new LinkedHashMap<>();
+        private final Map<FileStore, Path> examples = new LinkedHashMap<>();
+        private final Map<Path, FileStore> storesByDir = new HashMap<>();
+
+        /** Counts {@code size} bytes to be written under {@code path}. */
+        public void add(Path path, long size) throws IOException {
+            if (size <= 0) return;
+            Path dir = path.toAbsolutePath().getParent();
+            FileStore store = storesByDir.get(dir);
+            if (store == null) {
+                store = storeOf(path);
+                storesByDir.put(dir, store);
+            }
+            bytes.merge(store, size, Long::sum);
+            examples.putIfAbsent(store, path);
+        }
+
+        /**
+         * Fails with a message naming the filesystem, what is needed and what is free
+         * when any filesystem cannot take its share.
+         */
+        public void check() throws IOException {
+            for (Map.Entry<FileStore, Long> entry : bytes.entrySet()) {
+                FileStore store = entry.getKey();
+                long needed = entry.getValue() + Math.max(HEADROOM_BYTES, (long) (entry.getValue() * HEADROOM_FRACTION));
+                long usable = store.getUsableSpace();
+                if (usable < needed) {
+                    throw new InsufficientSpaceException("Not enough disk space on " + store + " for "
+                            + examples.get(store).getParent() + ": " + humanReadable(needed) + " needed, "
+                            + humanReadable(usable) + " free");
+                }
+            }
+        }
+    }
+
+    /** The filesystem {@code path} is on, or will be on once created. */
+    public static FileStore storeOf(Path path) throws IOException {
+        Path existing = path.toAbsolutePath();
+        while (existing != null && !Files.exists(existing)) {
+            existing = existing.getParent();
+        }
+        if (existing == null) throw new IOException("No existing parent for " + path);
+        return Files.getFileStore(existing);
+    }
+
+    private static String humanReadable(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        int exp = (int) (Math.log(bytes) / Math.log(1024));
+        return String.format("%.1f %sB", bytes / Math.pow(1024, exp), "KMGTPE".charAt(exp - 1));
+    }
+}
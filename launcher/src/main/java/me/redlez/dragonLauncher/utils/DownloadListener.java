@@ -5,9 +5,10 @@ package me.redlez.dragonLauncher.utils;
 public interface DownloadListener {
 	
 	
-    void onByteProgress(String fileName, long fileDownloaded, long globalDownloaded, long globalTotal);
-
-    void onProgress(String fileName, long globalDownloaded, long globalTotal);
+    /**
+     * Called at a fixed rate from the progress thread, never once per chunk.
+     */
+    void onProgress(ProgressSnapshot snapshot);
 
     void onError(String fileName, Exception e, long globalDownloaded, long globalTotal);
 }
@@ -1,19 +1,17 @@
 package me.redlez.dragonLauncher.utils;
 
 import java.io.*;
-import java.net.InetSocketAddress;
-import java.net.Socket;
-import java.net.SocketAddress;
-import java.net.URI;
-import java.net.http.*;
 import java.nio.file.*;
-import java.time.Duration;
-import java.util.Comparator;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.concurrent.atomic.AtomicLong;
 
+import me.redlez.dragonLauncher.utils.DownloadScheduler.Priority;
 import me.redlez.dragonLauncher.utils.VersionHandler.Downloadable;
 import me.redlez.dragonLauncher.utils.VersionHandler.VersionMetadata;
 
@@ -23,317 +21,499 @@ public class DownloadManager {
 
     private final Downloadable clientJar;
     private final List<Downloadable> libraries;
-    private final List<Downloadable> assets;
+    // Known once the asset index is parsed, which runs while the libraries download
+    private final CompletableFuture<VersionMetadata> resolved;
+    private volatile AssetTable assets = AssetTable.EMPTY;
 
     private final Path baseDir;
     private final Path versionDir;
+    private final InstallIndex index;
 
-    private final ExecutorService downloaderPool = Executors.newFixedThreadPool(8);
-    private final Set<Path> completedFiles = ConcurrentHashMap.newKeySet();
-    private final AtomicLong downloadedBytes = new AtomicLong(0);
-    private long totalBytes;
+    private final DownloadScheduler scheduler = new DownloadScheduler();
+    // Completion by plan position: client, version JSON, libraries, asset index, then assets
+    private final BitSet completed = new BitSet();
+    private final Queue<Future<?>> criticalTransfers = new ConcurrentLinkedQueue<>();
+    private final ProgressAggregator progress;
     private final String version;
-
-    private DownloadListener listener;
+    private final int librariesBase;
+    private final int assetIndexSlot;
+    private final int assetsBase;
+    private Thread assetFeeder;
+    private volatile boolean cancelled;
+    private Path nativesDir;
+    private final Set<String> nativeFiles = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger nativeJarsPending = new AtomicInteger();
+    // Slots whose natives are in; a jar re-run after pause must not count twice
+    private final BitSet nativesInstalled = new BitSet();
+
+    private volatile DownloadListener listener;
     private static final LoggerUtil LOGGER = new LoggerUtil("DownloadManager");
+    private static final RetryPolicy RETRY = RetryPolicy.DEFAULT;
+    // How many times one file waits out a parked host before counting it as a failed attempt
+    private static final int MAX_PARKED = 10;
 
     public DownloadManager(String version) throws Exception {
-    	LOGGER.info(isOnline() ? "Fetching Resources.." : "Running Offline");
+        boolean online = ConnectivityService.isOnline();
+    	LOGGER.info(online ? "Fetching Resources.." : "Running Offline");
     	
-        this.versionData = VersionHandler.getVersionMetadata(version, isOnline());
+        VersionHandler.MetadataPipeline pipeline = VersionHandler.resolveMetadata(version, online);
+        this.versionData = VersionHandler.await(pipeline.versionJson());
+        this.resolved = pipeline.complete();
         this.version = version;
         this.clientJar = versionData.clientJar;
         this.libraries = versionData.libraries;
-        this.assets = versionData.assets;
-        this.totalBytes = versionData.totalSize;
+        this.librariesBase = 2;
+        this.assetIndexSlot = librariesBase + libraries.size();
+        this.assetsBase = assetIndexSlot + 1;
+        this.progress = new ProgressAggregator(plannedBytes(), plannedFiles());
 
         this.baseDir = Paths.get(System.getProperty("user.home"), ".minecraft");
         this.versionDir = baseDir.resolve("versions").resolve(version);
+        this.index = InstallIndex.forDir(baseDir);
         
 
         Files.createDirectories(versionDir);
     }
 
-    public static boolean isOnline() {
-        try (Socket socket = new Socket()) {
-            SocketAddress addr = new InetSocketAddress("8.8.8.8", 53);
-            socket.connect(addr, 2000);
-            return true; // Connected
-        } catch (IOException e) {
-            return false; // Not connected
-        }
-    }
-
 	public void setDownloadListener(DownloadListener listener) {
+        progress.setListener(listener);
         this.listener = listener;
     }
 
-    public void submitDownload(Downloadable file, boolean isNative, Path nativesDir) {
+    private Future<?> submitDownload(Downloadable file, int slot, Priority priority, boolean isNative, Path nativesDir) {
     	if (file == null) {
             LOGGER.warning("Skipping download: file is null");
-            return;
+            return CompletableFuture.completedFuture(null);
         }
-        Path targetPath = baseDir.resolve(file.path);
-        Path tempPath = targetPath.resolveSibling(targetPath.getFileName() + ".tmp");
-
-        downloaderPool.submit(() -> {
-            int maxRetries = 3;
-            for (int attempt = 1; attempt <= maxRetries; attempt++) {
-                try {
-                    if (Files.exists(targetPath) && Files.size(targetPath) == file.size) {
-                        LOGGER.info("Already exists: " + targetPath);
-                        if (isNative && nativesDir != null) {
-                            extractJar(targetPath, nativesDir);
-                            LOGGER.info("Extracted natives from: " + targetPath);
-                        }
-                        onTaskComplete(targetPath, file.size);
-                        return;
-                    }
-
-                    Files.createDirectories(targetPath.getParent());
-
-                    HttpRequest request = HttpRequest.newBuilder()
-                            .uri(URI.create(file.url))
-                            .timeout(Duration.ofSeconds(60))
-                            .build();
+        if (cancelled) return CompletableFuture.completedFuture(null);
+        Future<?> transfer;
+        try {
+            transfer = scheduler.submit(priority, file.size, transferTask(file, slot, priority, isNative, nativesDir));
+        } catch (RejectedExecutionException e) {
+            // A cancel() between the check and the submit shut the scheduler down
+            if (cancelled) return CompletableFuture.completedFuture(null);
+            throw e;
+        }
+        if (priority != Priority.BACKGROUND) {
+            criticalTransfers.add(transfer);
+        }
+        return transfer;
+    }
 
-                    HttpResponse<InputStream> response = HttpClient.newHttpClient()
-                            .send(request, HttpResponse.BodyHandlers.ofInputStream());
+    private DownloadScheduler.Transfer transferTask(Downloadable file, int slot, Priority priority, boolean isNative,
+                                                    Path nativesDir) {
+        Path targetPath = baseDir.resolve(file.path);
+        boolean background = priority == Priority.BACKGROUND;
+        // Bytes of this file already counted in the progress, across attempts and pause/resume
+        AtomicLong credited = new AtomicLong();
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicInteger parked = new AtomicInteger();
+        FileDownloader.ProgressSink sink = new FileDownloader.ProgressSink() {
+            @Override
+            public void onBytes(int read) {
+                credited.addAndGet(read);
+                progress.addBytes(read);
+                scheduler.recordBytes(read);
+            }
 
-                    if (response.statusCode() != 200) {
-                        throw new IOException("HTTP " + response.statusCode());
+            @Override
+            public BandwidthLimiter limiter() {
+                return background ? BandwidthLimiter.BACKGROUND : BandwidthLimiter.FOREGROUND;
+            }
+        };
+        return () -> {
+            try {
+                if (index.isVerified(targetPath, file.size, file.sha1)) {
+                    LOGGER.info("Already exists: " + targetPath);
+                    if (isNative && nativesDir != null) {
+                        installNatives(slot, targetPath, file.sha1, nativesDir);
                     }
+                    onTaskComplete(slot, file.size, credited.get());
+                    return 0;
+                }
 
-                    // Download to temp file
-                    try (InputStream in = response.body();
-                         OutputStream out = Files.newOutputStream(tempPath,
-                                 StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
-
-                        byte[] buffer = new byte[8192];
-                        int read;
-                        long fileDownloaded = 0;
-
-                        while ((read = in.read(buffer)) != -1) {
-                            out.write(buffer, 0, read);
-                            fileDownloaded += read;
-                            long global = downloadedBytes.addAndGet(read);
-
-                            if (listener != null) {
-                                listener.onByteProgress(
-                                        targetPath.getFileName().toString(),
-                                        fileDownloaded,
-                                        global,
-                                        totalBytes
-                                );
-                            }
-                        }
-                        out.flush();
-                    }
+                // Link from the shared store, or download into it resuming a partial from an earlier attempt or run
+                String actualSha1 = ArtifactStore.fetch(file.url, file.sha1, file.size, targetPath, sink);
+                index.record(targetPath, file.size, actualSha1);
 
-                    // Verify downloaded size
-                    long actualSize = Files.size(tempPath);
-                    if (actualSize != file.size) {
-                        throw new IOException("Size mismatch after download: " + actualSize + " != " + file.size);
-                    }
+                LOGGER.info("Ready: " + targetPath.getFileName());
+                if (isNative && nativesDir != null) {
+                    installNatives(slot, targetPath, actualSha1, nativesDir);
+                }
 
-                    // Atomic rename
-                    Files.move(tempPath, targetPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                onTaskComplete(slot, file.size, credited.get());
+                return 0;
 
-                    LOGGER.info("Downloaded: " + targetPath.getFileName());
-                    if (isNative && nativesDir != null) {
-                        extractJar(targetPath, nativesDir);
-                        LOGGER.info("Extracted natives from: " + targetPath);
-                    }
+            } catch (Exception e) {
+                if (scheduler.isHalted()) {
+                    // Stopped by pause/cancel; the partial stays for the next run
+                    return 0;
+                }
+                // A parked host is not this file's fault: wait for the breaker without using up an attempt
+                if (e instanceof CircuitBreaker.OpenException open && parked.incrementAndGet() <= MAX_PARKED) {
+                    return Math.max(1, open.getRetryInMillis());
+                }
 
-                    onTaskComplete(targetPath, file.size);
-                    return;
-
-                } catch (Exception e) {
-                    LOGGER.warning("Download failed (attempt " + attempt + "/" + maxRetries + "): " + file.url);
-                    try { Files.deleteIfExists(tempPath); } catch (IOException ignored) {}
-                    if (attempt == maxRetries) {
-                        LOGGER.error("Giving up on: " + file.url + "\n" + e);
-                        onTaskError(targetPath.getFileName().toString(), e);
-                    } else {
-                        try { Thread.sleep(1000L * attempt); } catch (InterruptedException ignored) {}
-                    }
+                int attempt = attempts.incrementAndGet();
+                scheduler.recordError();
+                if (!RETRY.shouldRetry(attempt, e)) {
+                    LOGGER.error("Giving up on: " + file.url + "\n" + e);
+                    onTaskError(targetPath.getFileName().toString(), e);
+                    return 0;
                 }
+                long delay = Math.max(1, RETRY.delayMillis(attempt, e));
+                LOGGER.warning("Download failed (attempt " + attempt + "/" + RETRY.getMaxAttempts() + "), retrying in "
+                        + delay + " ms: " + file.url);
+                return delay;
             }
-        });
+        };
     }
     
     public static void downloadFile(String url, Path target) throws IOException, InterruptedException {
-        HttpClient client = HttpClient.newBuilder()
-                .followRedirects(HttpClient.Redirect.ALWAYS)
-                .build();
-
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .GET()
-                .build();
-
-        HttpResponse<Path> response = client.send(request,
-                HttpResponse.BodyHandlers.ofFile(target));
+        downloadFile(url, target, false);
+    }
 
-        if (response.statusCode() != 200) {
-            throw new IOException("Failed to download file: HTTP " + response.statusCode());
+    /**
+     * Downloads a file whose size is not known up front. With {@code large} set the transfer is
+     * split into parallel ranges when the server supports them.
+     */
+    public static void downloadFile(String url, Path target, boolean large) throws IOException, InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                if (large) {
+                    FileDownloader.fetchLarge(url, target, null, null);
+                } else {
+                    FileDownloader.fetch(url, target, -1, null, null);
+                }
+                return;
+            } catch (IOException e) {
+                if (!RETRY.shouldRetry(attempt, e)) {
+                    throw new IOException("Failed to download file: " + url, e);
+                }
+                long delay = RETRY.delayMillis(attempt, e);
+                LOGGER.warning("Download failed (attempt " + attempt + "/" + RETRY.getMaxAttempts() + "), resuming in "
+                        + delay + " ms: " + url);
+                Thread.sleep(delay);
+            }
         }
     }
 
 
-    private void onTaskComplete(Path target, long fileSize) {
-        if (completedFiles.add(target)) {
-            long global = downloadedBytes.addAndGet(fileSize);
-
-            if (listener != null) {
-                listener.onByteProgress(target.getFileName().toString(), fileSize, global, totalBytes);
-                if (global >= totalBytes) {
-                    listener.onProgress("All files", global, totalBytes);
-                }
-            }
+    private void onTaskComplete(int slot, long fileSize, long credited) {
+        synchronized (completed) {
+            if (completed.get(slot)) return;
+            completed.set(slot);
         }
+        // Streamed bytes are already counted; add what came from disk or a resumed partial,
+        // or take back bytes of attempts that had to start over
+        progress.addBytes(fileSize - credited);
+        progress.fileCompleted();
     }
 
     private void onTaskError(String fileName, Exception e) {
-        if (listener != null) {
-            listener.onError(fileName, e, downloadedBytes.get(), totalBytes);
+        DownloadListener current = listener;
+        if (current != null) {
+            current.onError(fileName, e, progress.getDownloadedBytes(), progress.getTotalBytes());
         }
     }
 
-    private void extractJar(Path jarFile, Path outputDir) {
-        try (FileSystem fs = FileSystems.newFileSystem(jarFile, (ClassLoader) null)) {
-            Path root = fs.getPath("/");
-            Files.walk(root).forEach(path -> {
-                try {
-                    if (!Files.isDirectory(path)
-                            && !path.toString().contains("META-INF")
-                            && (path.toString().endsWith(".dll")
-                            || path.toString().endsWith(".so")
-                            || path.toString().endsWith(".dylib"))) {
-
-                        Path relative = root.relativize(path);
-                        Path target = outputDir.resolve(relative.toString());
-
-                        Files.createDirectories(target.getParent());
-                        Files.copy(path, target, StandardCopyOption.REPLACE_EXISTING);
-                    }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-            });
-        } catch (Exception e) {
-            e.printStackTrace();
+    private void installNatives(int slot, Path jar, String sha1, Path nativesDir) throws IOException, InterruptedException {
+        nativeFiles.addAll(NativesCache.install(jar, sha1, nativesDir));
+        synchronized (nativesInstalled) {
+            if (nativesInstalled.get(slot)) return;
+            nativesInstalled.set(slot);
         }
+        nativeJarsPending.decrementAndGet();
     }
 
     // === Download stages ===
 
     public void downloadClient() throws Exception {
         if (clientJar != null) {
-            submitDownload(clientJar, false, null);
-            submitDownload(versionData.versionJson, false, null);
+            submitDownload(clientJar, 0, Priority.CRITICAL, false, null);
+            submitDownload(versionData.versionJson, 1, Priority.CRITICAL, false, null);
         }
     }
 
     public void downloadLibraries() throws IOException {
-    	Path nativesDir = baseDir.resolve("versions").resolve(version).resolve(version + "-natives");
-    	if (Files.exists(nativesDir)) {
-    	    try {
-    	        Files.walk(nativesDir)
-    	            .sorted(Comparator.reverseOrder())
-    	            .map(Path::toFile)
-    	            .forEach(File::delete);
-    	        long count = Files.walk(nativesDir).count();
-    	        LOGGER.info("Deleted " + count + " old native files for version " + version);
-    	    } catch (IOException e) {
-    	        LOGGER.warning("Failed to clean natives folder: " + e.getMessage());
-    	    }
-    	}
+    	// Natives are linked in from the extraction cache; files no jar provides any more are pruned in waitForCritical
+    	nativesDir = baseDir.resolve("versions").resolve(version).resolve(version + "-natives");
     	Files.createDirectories(nativesDir);
 
 
-        for (Downloadable lib : libraries) {
+        for (int i = 0; i < libraries.size(); i++) {
+            Downloadable lib = libraries.get(i);
             boolean isNative = lib.path.toString().contains("natives");
-            submitDownload(lib, isNative, nativesDir);
+            if (isNative) nativeJarsPending.incrementAndGet();
+            submitDownload(lib, librariesBase + i, isNative ? Priority.RUNTIME : Priority.CRITICAL, isNative, nativesDir);
         }
     }
 
-    public void downloadAssets() throws IOException {
-    	
+    public void downloadAssets() throws Exception {
+        // The client and libraries are already on their way while the asset index resolves
+        try {
+            assets = VersionHandler.await(resolved).assets;
+            progress.setTotals(plannedBytes(), plannedFiles());
+            preflight(true);
+        } catch (Exception e) {
+            // Failures caused by a cancel() belong to a session nobody is watching any more
+            if (cancelled) return;
+            // The install cannot finish; stop what is running, keeping resumable partials
+            cancel();
+            throw e;
+        }
+        if (cancelled) return;
+
         Path indexesDir = baseDir.resolve("assets").resolve("indexes");
         Files.createDirectories(indexesDir);
         
         Downloadable indexFile = versionData.assetIndex;
-        submitDownload(indexFile, false, null);
-
-        for (Downloadable asset : assets) {
-            Path target = baseDir.resolve(asset.path);
-            submitDownload(new Downloadable(asset.url, asset.sha1, asset.size, target), false, null);
-        }
+        submitDownload(indexFile, assetIndexSlot, Priority.RUNTIME, false, null);
+
+        // Thousands of objects: feed them through the scheduler's bounded queue from a separate
+        // thread so only a window of tasks exists at any time and the caller is not held up
+        assetFeeder = Thread.ofVirtual().name("asset-feeder").start(() -> {
+            try {
+                for (int i = 0; i < assets.size(); i++) {
+                    Downloadable asset = assets.get(i);
+                    scheduler.submitBounded(Priority.BACKGROUND, asset.size,
+                            transferTask(asset, assetsBase + i, Priority.BACKGROUND, false, null));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RejectedExecutionException e) {
+                if (!cancelled) LOGGER.warning("Asset downloads stopped: scheduler shut down");
+            }
+        });
     }
 
 
     public void downloadAll() throws Exception {
+        preflight(false);
+        progress.start();
         downloadClient();
         downloadLibraries();
         downloadAssets();
     }
 
+    private long plannedBytes() {
+        long total = assets.totalSize() + (clientJar != null ? clientJar.size : 0);
+        for (Downloadable lib : libraries) total += lib.size;
+        // Counted in plannedFiles and credited on completion like any other file
+        if (versionData.assetIndex != null) total += Math.max(0, versionData.assetIndex.size);
+        return total;
+    }
+
+    private int plannedFiles() {
+        return libraries.size() + assets.size() + (clientJar != null ? 1 : 0) + (versionData.assetIndex != null ? 1 : 0);
+    }
+
+    /**
+     * Fails fast when the disks cannot hold what is left to download, instead of failing halfway
+     * with partial files everywhere. The whole stage is checked first; only when that does not fit
+     * are the files already in place subtracted, which costs a stat per file.
+     */
+    private void preflight(boolean assetObjects) throws IOException {
+        long[] total = {assetObjects ? assets.totalSize() : 0};
+        if (!assetObjects) forEachPlanned(file -> total[0] += Math.max(0, file.size), false);
+        boolean sameStore = DiskSpace.storeOf(ArtifactStore.root()).equals(DiskSpace.storeOf(baseDir));
+        if (fits(total[0], sameStore)) return;
+
+        DiskSpace.Requirement remaining = new DiskSpace.Requirement();
+        IOException[] failure = {null};
+        forEachPlanned(file -> {
+            if (failure[0] != null || file.size <= 0) return;
+            try {
+                Path target = baseDir.resolve(file.path);
+                // Installs from before the store existed have the file but no blob: nothing to write
+                if (sizeOf(target) == file.size) return;
+                boolean stored = file.sha1 != null && file.sha1.length() == 40;
+                if (stored && !ArtifactStore.contains(file.sha1, file.size)) {
+                    remaining.add(ArtifactStore.blob(file.sha1), file.size);
+                }
+                // A different volume from the store means install paths get copies, not links
+                if (!stored || !sameStore) remaining.add(target, file.size);
+            } catch (IOException e) {
+                failure[0] = e;
+            }
+        }, assetObjects);
+        if (failure[0] != null) throw failure[0];
+        remaining.check();
+    }
+
+    private boolean fits(long bytes, boolean sameStore) throws IOException {
+        DiskSpace.Requirement all = new DiskSpace.Requirement();
+        all.add(ArtifactStore.root().resolve("plan"), bytes);
+        if (!sameStore) all.add(baseDir.resolve("plan"), bytes);
+        try {
+            all.check();
+            return true;
+        } catch (DiskSpace.InsufficientSpaceException e) {
+            return false;
+        }
+    }
+
+    /** The asset objects, or everything else. */
+    private void forEachPlanned(Consumer<Downloadable> action, boolean assetObjects) {
+        if (assetObjects) {
+            for (int i = 0; i < assets.size(); i++) {
+                action.accept(assets.get(i));
+            }
+            return;
+        }
+        if (clientJar != null) action.accept(clientJar);
+        libraries.forEach(action);
+        if (versionData.assetIndex != null) action.accept(versionData.assetIndex);
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Blocks until everything the game needs to start (client, libraries, natives, asset index)
+     * is done. Asset objects keep downloading in the background.
+     */
+    public void waitForCritical() {
+        for (Future<?> transfer : criticalTransfers) {
+            try {
+                transfer.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException | CancellationException e) {
+                // failures are reported through the listener
+            }
+        }
+        // Only when every native jar made it, otherwise the set of wanted files is incomplete
+        if (nativesDir != null && nativeJarsPending.get() == 0 && !cancelled) {
+            NativesCache.prune(nativesDir, nativeFiles);
+        }
+        index.save();
+    }
+
     public void waitForCompletion() {
-        downloaderPool.shutdown();
+        if (assetFeeder != null) {
+            try {
+                assetFeeder.join();
+            } catch (InterruptedException e) {
+                assetFeeder.interrupt();
+                Thread.currentThread().interrupt();
+            }
+        }
+        scheduler.shutdown();
         try {
-            if (!downloaderPool.awaitTermination(30, TimeUnit.MINUTES)) {
-                downloaderPool.shutdownNow();
+            if (!scheduler.awaitTermination(30, TimeUnit.MINUTES)) {
+                scheduler.shutdownNow();
             }
         } catch (InterruptedException e) {
-            downloaderPool.shutdownNow();
+            scheduler.shutdownNow();
             Thread.currentThread().interrupt();
         }
+        progress.stop();
+        index.save();
     }
 
     public void shutdown() {
-        downloaderPool.shutdown();
+        scheduler.shutdown();
+    }
+
+    /**
+     * Abandons this install: running transfers stop within a buffer, keep their resumable
+     * partials, and free their connections for whatever session starts next.
+     */
+    public void cancel() {
+        if (cancelled) return;
+        cancelled = true;
+        LOGGER.info("Cancelling downloads for " + version);
+        if (assetFeeder != null) assetFeeder.interrupt();
+        // The UI belongs to the next session now
+        listener = null;
+        progress.setListener(null);
+        scheduler.shutdownNow();
+        progress.stop();
+        index.save();
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /** Stops running transfers, keeping their partials, until {@link #resume()}. */
+    public void pause() {
+        scheduler.pause();
+    }
+
+    public void resume() {
+        scheduler.resume();
+    }
+
+    public int getConcurrency() {
+        return scheduler.getConcurrency();
     }
     
     public boolean allFilesAvailableOffline(String version) {
+        return filesAvailable(version, true);
+    }
+
+    /**
+     * Like {@link #allFilesAvailableOffline} but ignores asset objects, which the game can do without at startup.
+     */
+    public boolean criticalFilesAvailable(String version) {
+        return filesAvailable(version, false);
+    }
+
+    private boolean filesAvailable(String version, boolean includeAssets) {
         Path versionDir = baseDir.resolve("versions").resolve(version);
         Path versionJson = versionDir.resolve(version + ".json");
-        Path clientJar = versionDir.resolve(version + ".jar");
 
         // Check version files
-        if (!Files.exists(versionJson) || !Files.exists(clientJar)) {
+        if (!Files.exists(versionJson)) {
             return false;
         }
-        
-        // Check libraries
-        Path libsDir = baseDir.resolve("libraries");
+
         try {
             VersionHandler.VersionMetadata meta = VersionHandler.getVersionMetadata(version, true); // offline mode
+            if (meta.clientJar != null && !isVerified(meta.clientJar)) {
+                return false;
+            }
+
+            // Check libraries
             for (VersionHandler.Downloadable lib : meta.libraries) {
-                Path libPath = baseDir.resolve(lib.path);
-                if (!Files.exists(libPath)) {
+                if (!isVerified(lib)) {
                     return false;
                 }
             }
 
-            for (VersionHandler.Downloadable asset : meta.assets) {
-                Path assetPath = baseDir.resolve(asset.path);
-                if (!Files.exists(assetPath)) {
-                    return false;
+            if (includeAssets) {
+                for (int i = 0; i < meta.assets.size(); i++) {
+                    if (!isVerified(meta.assets.get(i))) {
+                        return false;
+                    }
                 }
             }
 
             // Check asset index
-            if (meta.assetIndex != null && !Files.exists(baseDir.resolve(meta.assetIndex.path))) {
+            if (meta.assetIndex != null && !isVerified(meta.assetIndex)) {
                 return false;
             }
 
         } catch (Exception e) {
             e.printStackTrace();
             return false;
+        } finally {
+            index.save();
         }
 
         return true; // all files exist
     }
 
+    private boolean isVerified(Downloadable file) {
+        return index.isVerified(baseDir.resolve(file.path), file.size, file.sha1);
+    }
+
 }
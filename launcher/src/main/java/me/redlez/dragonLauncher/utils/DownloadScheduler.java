@@ -0,0 +1,297 @@
+package me.redlez.dragonLauncher.utils;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs every transfer on its own virtual thread and gates how many of them may move bytes at once.
+ * The gate follows AIMD: while throughput keeps growing the limit goes up by one per window,
+ * any failure in a window halves it. Per-host limits are enforced separately by {@link HttpUtil}.
+ * Free slots always go to the most urgent {@link Priority} that has transfers waiting.
+ */
+public class DownloadScheduler {
+
+    public enum Priority {
+        /** Client jar and libraries: the JVM cannot start without them. */
+        CRITICAL,
+        /** Natives and the asset index: needed right at startup. */
+        RUNTIME,
+        /** Asset objects: the game loads them lazily and can start without them. */
+        BACKGROUND
+    }
+
+    /** One unit of work; it can ask to run again later, and waits for that without holding a slot. */
+    public interface Transfer {
+        /**
+         * @return 0 when done, otherwise the milliseconds to wait before running again
+         */
+        long run();
+    }
+
+    private static final LoggerUtil LOGGER = new LoggerUtil("DownloadScheduler");
+
+    private static final int MIN_CONCURRENCY = 2;
+    private static final int MAX_CONCURRENCY = 64;
+    private static final int INITIAL_CONCURRENCY = 8;
+    private static final long LARGE_FILE_BYTES = 4L * 1024 * 1024;
+    private static final int MAX_LARGE_IN_FLIGHT = 4;
+    private static final int MAX_QUEUED = 256;
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(1000);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotFreed = lock.newCondition();
+    private final Semaphore queued = new Semaphore(MAX_QUEUED);
+
+    // The limit the last session settled on: a new session starts there instead of ramping up again
+    private static volatile int learnedLimit = INITIAL_CONCURRENCY;
+
+    private int limit = learnedLimit;
+    private boolean paused;
+    private boolean stopped;
+    private int pauseEpoch;
+    private final Set<Thread> running = ConcurrentHashMap.newKeySet();
+    private int inFlight;
+    private int largeInFlight;
+    private final int[] waiting = new int[Priority.values().length];
+
+    // --- current measurement window ---
+    // Bytes are counted off the lock: every buffer read lands here, from every transfer
+    private volatile long windowStart = System.nanoTime();
+    private final LongAdder windowBytes = new LongAdder();
+    private int windowErrors;
+    private double lastThroughput;
+
+    public Future<?> submit(Priority priority, long expectedSize, Transfer transfer) {
+        return executor.submit(task(priority, expectedSize, transfer, null));
+    }
+
+    /**
+     * Like {@link #submit} but blocks the caller while {@value #MAX_QUEUED} transfers are already
+     * pending, so a huge plan is fed in step with the download rate instead of all at once.
+     */
+    public Future<?> submitBounded(Priority priority, long expectedSize, Transfer transfer) throws InterruptedException {
+        queued.acquire();
+        try {
+            return executor.submit(task(priority, expectedSize, transfer, queued::release));
+        } catch (RejectedExecutionException e) {
+            queued.release();
+            throw e;
+        }
+    }
+
+    private Runnable task(Priority priority, long expectedSize, Transfer transfer, Runnable onDone) {
+        boolean large = expectedSize >= LARGE_FILE_BYTES;
+        return () -> {
+            try {
+                while (true) {
+                    int epoch;
+                    try {
+                        epoch = acquire(priority.ordinal(), large);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    Thread current = Thread.currentThread();
+                    long retryIn = 0;
+                    boolean preempted;
+                    running.add(current);
+                    try {
+                        retryIn = transfer.run();
+                    } finally {
+                        running.remove(current);
+                        preempted = release(large, epoch);
+                        if (preempted) Thread.interrupted();
+                    }
+                    // A transfer stopped by pause() goes back to the gate and runs again on resume()
+                    if (preempted) continue;
+                    if (retryIn <= 0) return;
+                    // Backoff happens outside the gate: the slot goes to other work, and a sleeping
+                    // virtual thread does not hold a carrier
+                    try {
+                        Thread.sleep(retryIn);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            } finally {
+                if (onDone != null) onDone.run();
+            }
+        };
+    }
+
+    private int acquire(int priority, boolean large) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            waiting[priority]++;
+            try {
+                while (paused || inFlight >= limit || (large && largeInFlight >= MAX_LARGE_IN_FLIGHT)
+                        || moreUrgentWaiting(priority)) {
+                    slotFreed.await();
+                }
+            } finally {
+                waiting[priority]--;
+            }
+            inFlight++;
+            if (large) largeInFlight++;
+            slotFreed.signalAll();
+            return pauseEpoch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean moreUrgentWaiting(int priority) {
+        for (int p = 0; p < priority; p++) {
+            if (waiting[p] > 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return true when the transfer was interrupted by a pause and has to run again
+     */
+    private boolean release(boolean large, int epoch) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (large) largeInFlight--;
+            slotFreed.signalAll();
+            return epoch != pauseEpoch && !stopped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops every running transfer (partials stay on disk and resume later) and holds queued ones at the gate.
+     */
+    public void pause() {
+        lock.lock();
+        try {
+            if (paused) return;
+            paused = true;
+            pauseEpoch++;
+            running.forEach(Thread::interrupt);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void resume() {
+        lock.lock();
+        try {
+            paused = false;
+            slotFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * True while transfers are being stopped on purpose, so their failures are not real errors.
+     */
+    public boolean isHalted() {
+        lock.lock();
+        try {
+            return paused || stopped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void recordBytes(long bytes) {
+        windowBytes.add(bytes);
+        // Only a window that is over needs the lock, and one reader closing it is enough
+        if (System.nanoTime() - windowStart >= WINDOW_NANOS && lock.tryLock()) {
+            try {
+                maybeAdjust();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    public void recordError() {
+        lock.lock();
+        try {
+            windowErrors++;
+            maybeAdjust();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void maybeAdjust() {
+        long now = System.nanoTime();
+        long elapsed = now - windowStart;
+        if (elapsed < WINDOW_NANOS) return;
+
+        double throughput = windowBytes.sumThenReset() * 1e9 / elapsed;
+        int previous = limit;
+
+        if (windowErrors > 0) {
+            limit = Math.max(MIN_CONCURRENCY, limit / 2);
+        } else if (inFlight >= limit && throughput >= lastThroughput * 0.95) {
+            limit = Math.min(MAX_CONCURRENCY, limit + 1);
+        } else if (throughput < lastThroughput * 0.7) {
+            limit = Math.max(MIN_CONCURRENCY, limit - 1);
+        }
+
+        if (limit != previous) {
+            LOGGER.info("Concurrency " + previous + " -> " + limit + " ("
+                    + String.format("%.1f", throughput / (1024 * 1024)) + " MB/s, " + windowErrors + " errors)");
+            if (limit > previous) slotFreed.signalAll();
+            learnedLimit = limit;
+        }
+
+        lastThroughput = throughput;
+        windowStart = now;
+        windowErrors = 0;
+    }
+
+    public int getConcurrency() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public void shutdownNow() {
+        lock.lock();
+        try {
+            stopped = true;
+            slotFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        executor.shutdownNow();
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+}
@@ -0,0 +1,312 @@
+package me.redlez.dragonLauncher.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Single-file transfer into {@code <target>.tmp} with resume support.
+ * The partial file is kept next to a {@code .tmp.meta} sidecar recording the source URL, the
+ * expected size/hash and the server validators, so a retry or a later launcher run can continue
+ * with a {@code Range} request instead of starting over.
+ */
+public final class FileDownloader {
+
+    private static final LoggerUtil LOGGER = new LoggerUtil("FileDownloader");
+
+    private static final long RESUMABLE_MIN_BYTES = 1024 * 1024;
+    private static final long PROGRESS_SAVE_INTERVAL = 8L * 1024 * 1024;
+
+    private static final SingleFlight<Path, String> IN_FLIGHT = new SingleFlight<>();
+
+    public interface ProgressSink {
+        void onBytes(int count);
+
+        /** The limit the transfer is charged to; its reads are sized from it too. */
+        default BandwidthLimiter limiter() {
+            return BandwidthLimiter.FOREGROUND;
+        }
+    }
+
+    private FileDownloader() {}
+
+    public static Path tempPath(Path target) {
+        return target.resolveSibling(target.getFileName() + ".tmp");
+    }
+
+    public static Path metaPath(Path target) {
+        return target.resolveSibling(target.getFileName() + ".tmp.meta");
+    }
+
+    /**
+     * Downloads {@code url} to {@code target}, resuming a compatible partial file if one exists.
+     * {@code expectedSize} may be -1 and {@code sha1} null when unknown.
+     *
+     * @return the SHA-1 of the downloaded file
+     */
+    public static String fetch(String url, Path target, long expectedSize, String sha1, ProgressSink sink)
+            throws IOException, InterruptedException {
+        return shared(target, sha1, () -> transfer(url, target, expectedSize, sha1, sink));
+    }
+
+    private static String transfer(String url, Path target, long expectedSize, String sha1, ProgressSink sink)
+            throws IOException, InterruptedException {
+        if (expectedSize >= SegmentedDownloader.THRESHOLD) {
+            String result = SegmentedDownloader.fetch(url, target, expectedSize, sha1, sink);
+            if (result != null) return result;
+        }
+
+        Path tempPath = tempPath(target);
+        Path metaPath = metaPath(target);
+        Files.createDirectories(target.getParent());
+
+        // Tiny files restart cheaply; skip the sidecar bookkeeping for them
+        boolean resumable = expectedSize < 0 || expectedSize >= RESUMABLE_MIN_BYTES;
+        Properties meta = resumable ? readMeta(metaPath) : null;
+        if (meta != null && meta.containsKey("segments")) {
+            // Segmented partial, cannot be continued as a single stream
+            discard(target);
+            meta = null;
+        }
+        long resumeFrom = 0;
+        if (meta != null && Files.exists(tempPath) && isSameArtifact(meta, url, expectedSize, sha1)) {
+            // The sidecar is the progress: bytes written after its last save may not be complete
+            resumeFrom = Math.min(Long.parseLong(meta.getProperty("done", "0")), Files.size(tempPath));
+        }
+        if (expectedSize > 0 && resumeFrom > expectedSize) {
+            resumeFrom = 0;
+        }
+
+        MessageDigest digest = HashUtil.newSha1();
+        if (resumeFrom > 0 && resumeFrom == expectedSize) {
+            return finish(target, expectedSize, sha1, HashUtil.update(digest, tempPath, resumeFrom));
+        }
+
+        String validator = meta == null ? null : validatorOf(meta);
+        long rangeStart = validator != null ? resumeFrom : 0;
+        resumeFrom = rangeStart;
+
+        // The source may be a mirror; a mirror with other validators answers 200 and the transfer restarts
+        try (MirrorRouter.Response routed = MirrorRouter.open(url, sha1, expectedSize, builder -> {
+            if (rangeStart > 0) {
+                builder.header("Range", "bytes=" + rangeStart + "-");
+                builder.header("If-Range", validator);
+            }
+        })) {
+            HttpResponse<InputStream> response = routed.http();
+            int status = response.statusCode();
+
+            if (status == 416) {
+                response.body().close();
+                discard(target);
+                throw new IOException("HTTP 416, partial file discarded");
+            }
+            if (status == 206 && resumeFrom > 0 && startOfRange(response) == resumeFrom) {
+                LOGGER.info("Resuming " + target.getFileName() + " at " + resumeFrom + " bytes");
+                HashUtil.update(digest, tempPath, resumeFrom);
+            } else if (status == 206) {
+                response.body().close();
+                discard(target);
+                throw new IOException("Unexpected Content-Range, partial file discarded");
+            } else if (status == 200) {
+                resumeFrom = 0;
+                if (resumable) {
+                    meta = newMeta(url, expectedSize > 0 ? expectedSize : response.headers()
+                            .firstValueAsLong("Content-Length").orElse(-1L), sha1, response);
+                    writeMeta(metaPath, meta, 0);
+                }
+            } else {
+                response.body().close();
+                if (status >= 500 || status == 429) routed.failed();
+                throw new HttpStatusException(response);
+            }
+
+            Set<OpenOption> options = resumeFrom > 0
+                    ? Set.of(StandardOpenOption.CREATE, StandardOpenOption.WRITE)
+                    : Set.of(StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            long position = resumeFrom;
+            BandwidthLimiter limiter = limiterOf(sink);
+            byte[] buffer = BufferPool.acquire();
+            try (InputStream in = response.body();
+                 FileChannel channel = FileChannel.open(tempPath, options)) {
+                long lastSaved = position;
+                int read;
+                while ((read = BufferPool.fill(in, buffer, limiter.chunkSize(buffer.length))) != -1) {
+                    digest.update(buffer, 0, read);
+                    ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                    while (chunk.hasRemaining()) {
+                        position += channel.write(chunk, position);
+                    }
+                    limiter.consume(read);
+                    if (sink != null) sink.onBytes(read);
+
+                    if (meta != null && position - lastSaved >= PROGRESS_SAVE_INTERVAL) {
+                        lastSaved = position;
+                        writeMeta(metaPath, meta, position);
+                    }
+                }
+                if (expectedSize <= 0) {
+                    channel.truncate(position);
+                }
+            } catch (IOException e) {
+                if (!Thread.currentThread().isInterrupted()) routed.failed();
+                throw e;
+            } finally {
+                BufferPool.release(buffer);
+                if (meta != null) writeMeta(metaPath, meta, position);
+            }
+
+            if (expectedSize > 0 && position != expectedSize) {
+                routed.failed();
+                throw new IOException("Transfer ended early at " + position + " of " + expectedSize + " bytes");
+            }
+            routed.transferred(position - resumeFrom);
+        }
+
+        return finish(target, expectedSize, sha1, digest);
+    }
+
+    static BandwidthLimiter limiterOf(ProgressSink sink) {
+        return sink != null ? sink.limiter() : BandwidthLimiter.FOREGROUND;
+    }
+
+    /**
+     * Like {@link #fetch} for files of unknown size that are likely big (JDK archives, installers):
+     * probes the server and splits the transfer into parallel ranges when it allows it.
+     */
+    public static String fetchLarge(String url, Path target, String sha1, ProgressSink sink)
+            throws IOException, InterruptedException {
+        return shared(target, sha1, () -> {
+            String result = SegmentedDownloader.fetch(url, target, -1, sha1, sink);
+            return result != null ? result : transfer(url, target, -1, sha1, sink);
+        });
+    }
+
+    /**
+     * Runs a transfer to {@code target} unless one is already in flight, in which case the caller
+     * waits for it instead of opening a second writer on the same {@code .tmp}. The registry is
+     * static because overlapping launches each have their own {@link DownloadManager}.
+     * A joiner that expected a different hash runs its own transfer once the current one is done.
+     */
+    static String shared(Path target, String sha1, SingleFlight.Work<String> work)
+            throws IOException, InterruptedException {
+        Path key = target.toAbsolutePath().normalize();
+        while (true) {
+            String result = IN_FLIGHT.run(key, work);
+            if (HashUtil.matches(sha1, result)) return result;
+        }
+    }
+
+    static String finish(Path target, long expectedSize, String sha1, MessageDigest digest) throws IOException {
+        Path tempPath = tempPath(target);
+
+        // Verify downloaded size
+        long actualSize = Files.size(tempPath);
+        if (expectedSize > 0 && actualSize != expectedSize) {
+            if (actualSize > expectedSize) discard(target);
+            throw new IOException("Size mismatch after download: " + actualSize + " != " + expectedSize);
+        }
+
+        // Verify hash computed while streaming; a corrupt partial must not be resumed again
+        String actualSha1 = HashUtil.toHex(digest.digest());
+        if (!HashUtil.matches(sha1, actualSha1)) {
+            discard(target);
+            throw new IOException("SHA-1 mismatch after download: " + actualSha1 + " != " + sha1);
+        }
+
+        // Atomic rename
+        Files.move(tempPath, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(metaPath(target));
+        return actualSha1;
+    }
+
+    public static void discard(Path target) {
+        try {
+            Files.deleteIfExists(tempPath(target));
+            Files.deleteIfExists(metaPath(target));
+        } catch (IOException ignored) {}
+    }
+
+    static long startOfRange(HttpResponse<?> response) {
+        // Content-Range: bytes 100-999/1000
+        Optional<String> range = response.headers().firstValue("Content-Range");
+        if (range.isEmpty()) return -1;
+        String value = range.get().trim();
+        int space = value.indexOf(' ');
+        int dash = value.indexOf('-');
+        if (space < 0 || dash < space) return -1;
+        try {
+            return Long.parseLong(value.substring(space + 1, dash));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // --- sidecar metadata ---
+
+    private static boolean isSameArtifact(Properties meta, String url, long expectedSize, String sha1) {
+        if (sha1 != null && !sha1.isEmpty()) {
+            return sha1.equalsIgnoreCase(meta.getProperty("sha1", ""));
+        }
+        if (!url.equals(meta.getProperty("url"))) return false;
+        return expectedSize <= 0 || String.valueOf(expectedSize).equals(meta.getProperty("size"));
+    }
+
+    private static String validatorOf(Properties meta) {
+        String etag = meta.getProperty("etag");
+        // If-Range only accepts strong entity tags
+        if (etag != null && !etag.startsWith("W/")) return etag;
+        return meta.getProperty("lastModified");
+    }
+
+    static Properties readMeta(Path metaPath) {
+        if (!Files.exists(metaPath)) return null;
+        Properties meta = new Properties();
+        try (InputStream in = Files.newInputStream(metaPath)) {
+            meta.load(in);
+            return meta;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static Properties newMeta(String url, long size, String sha1, HttpResponse<?> response) {
+        Properties meta = new Properties();
+        meta.setProperty("url", url);
+        meta.setProperty("size", String.valueOf(size));
+        if (sha1 != null) meta.setProperty("sha1", sha1);
+        response.headers().firstValue("ETag").ifPresent(v -> meta.setProperty("etag", v));
+        response.headers().firstValue("Last-Modified").ifPresent(v -> meta.setProperty("lastModified", v));
+        return meta;
+    }
+
+    private static void writeMeta(Path metaPath, Properties meta, long done) throws IOException {
+        meta.setProperty("done", String.valueOf(done));
+        storeMeta(metaPath, meta);
+    }
+
+    /**
+     * Writes the sidecar even when the thread was interrupted to stop the transfer: file channels
+     * refuse to work for an interrupted thread, and the sidecar is what makes the partial resumable.
+     */
+    static void storeMeta(Path metaPath, Properties meta) throws IOException {
+        boolean interrupted = Thread.interrupted();
+        try (OutputStream out = Files.newOutputStream(metaPath)) {
+            meta.store(out, "DragonLauncher partial download");
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+}
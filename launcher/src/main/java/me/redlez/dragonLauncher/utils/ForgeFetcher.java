@@ -1,7 +1,7 @@
 package me.redlez.dragonLauncher.utils;
 
-import java.net.http.*;
 import java.net.URI;
+import java.net.http.*;
 import java.io.IOException;
 import java.util.*;
 import com.google.gson.*;
@@ -10,18 +10,23 @@ public class ForgeFetcher {
 
     private static final String PROMOTIONS_URL = "https://files.minecraftforge.net/net/minecraftforge/forge/promotions_slim.json";
     private static final String FORGE_MAVEN = "https://maven.minecraftforge.net/net/minecraftforge/forge/";
+    private static final long PROMOTIONS_MAX_AGE_SECONDS = 600;
+
+    private static volatile Map<String, String> installers;
+    private static volatile long fetchedAt;
 
+    /**
+     * Forge builds to installer URLs. The same map instance is returned until the promotions are
+     * older than {@link #PROMOTIONS_MAX_AGE_SECONDS}, which lets {@link VersionCatalog} index it once.
+     */
     public static Map<String, String> getForgeInstallers() throws IOException, InterruptedException {
+        Map<String, String> cached = installers;
+        if (cached != null && System.currentTimeMillis() - fetchedAt < PROMOTIONS_MAX_AGE_SECONDS * 1000) {
+            return cached;
+        }
         Map<String, String> installers = new LinkedHashMap<>();
 
-        HttpClient client = HttpClient.newHttpClient();
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(PROMOTIONS_URL))
-                .header("User-Agent", "Mozilla/5.0")
-                .build();
-
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        JsonObject root = JsonParser.parseString(response.body()).getAsJsonObject();
+        JsonObject root = JsonParser.parseString(fetchPromotions()).getAsJsonObject();
         JsonObject promos = root.getAsJsonObject("promos");
 
         for (Map.Entry<String, JsonElement> entry : promos.entrySet()) {
@@ -34,7 +39,29 @@ public class ForgeFetcher {
             installers.put(fullVersion, url);
         }
 
-        return installers;
+        Map<String, String> result = Collections.unmodifiableMap(installers);
+        ForgeFetcher.installers = result;
+        fetchedAt = System.currentTimeMillis();
+        return result;
+    }
+
+    private static String fetchPromotions() throws IOException, InterruptedException {
+        // The LAN cache, when configured, keeps the list for a few minutes so every machine sees the same builds
+        URI cached = CacheProxy.uriFor(PROMOTIONS_URL, null, -1, PROMOTIONS_MAX_AGE_SECONDS);
+        if (cached != null) {
+            try {
+                HttpResponse<String> response = HttpUtil.send(HttpUtil.request(cached).build(),
+                        HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() == 200) return response.body();
+            } catch (IOException e) {
+                // Cache unreachable, ask the origin
+            }
+        }
+
+        HttpRequest request = HttpUtil.request(PROMOTIONS_URL)
+                .setHeader("User-Agent", "Mozilla/5.0")
+                .build();
+        return HttpUtil.send(request, HttpResponse.BodyHandlers.ofString()).body();
     }
 
     public Map<String, String>  getForgeVersionsaa() throws Exception{
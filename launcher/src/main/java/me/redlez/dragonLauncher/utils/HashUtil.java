@@ -0,0 +1,55 @@
+package me.redlez.dragonLauncher.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public final class HashUtil {
+
+    private HashUtil() {}
+
+    public static MessageDigest newSha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+    }
+
+    public static String sha1(Path file) throws IOException {
+        return toHex(update(newSha1(), file, Long.MAX_VALUE).digest());
+    }
+
+    /** Feeds the first {@code length} bytes of {@code file} into {@code digest}. */
+    public static MessageDigest update(MessageDigest digest, Path file, long length) throws IOException {
+        byte[] buffer = BufferPool.acquire();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long remaining = Math.min(length, channel.size());
+            while (remaining > 0) {
+                int read = channel.read(ByteBuffer.wrap(buffer, 0, (int) Math.min(remaining, buffer.length)));
+                if (read < 0) break;
+                remaining -= read;
+                digest.update(buffer, 0, read);
+            }
+        } finally {
+            BufferPool.release(buffer);
+        }
+        return digest;
+    }
+
+    public static String toHex(byte[] hash) {
+        return HexFormat.of().formatHex(hash);
+    }
+
+    /**
+     * True when there is nothing to verify against or the hashes match (case-insensitive).
+     */
+    public static boolean matches(String expected, String actual) {
+        return expected == null || expected.isEmpty() || expected.equalsIgnoreCase(actual);
+    }
+}
@@ -0,0 +1,49 @@
+package me.redlez.dragonLauncher.utils;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * A response with an unusable status code, carrying the server's {@code Retry-After} hint if it sent one.
+ */
+public class HttpStatusException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+    private final long retryAfterMillis;
+
+    public HttpStatusException(HttpResponse<?> response) {
+        super("HTTP " + response.statusCode() + " from " + response.uri().getHost());
+        this.status = response.statusCode();
+        this.retryAfterMillis = response.headers().firstValue("Retry-After")
+                .map(HttpStatusException::parseRetryAfter).orElse(-1L);
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    /** Milliseconds the server asked us to wait, or -1 when it did not say. */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    private static long parseRetryAfter(String value) {
+        // Either delta-seconds or an HTTP date
+        try {
+            return Math.max(0, Long.parseLong(value.trim()) * 1000);
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, Duration.between(ZonedDateTime.now(at.getZone()), at).toMillis());
+            } catch (DateTimeParseException ignored) {
+                return -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package me.redlez.dragonLauncher.utils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Shared HTTP transport for the whole launcher.
+ * One client means one connection pool: HTTP/1.1 connections are kept alive per host
+ * and HTTP/2 hosts get their requests multiplexed over a single connection.
+ */
+public final class HttpUtil {
+
+    private static final String USER_AGENT = "DragonLauncher/1.0";
+
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .followRedirects(HttpClient.Redirect.ALWAYS)
+            .connectTimeout(Duration.ofSeconds(15))
+            .build();
+
+    private static final Map<String, HostSlots> HOST_PERMITS = new ConcurrentHashMap<>();
+
+    private HttpUtil() {}
+
+    public static HttpClient client() {
+        return CLIENT;
+    }
+
+    public static HttpRequest.Builder request(String url) {
+        return request(URI.create(url));
+    }
+
+    public static HttpRequest.Builder request(URI uri) {
+        return HttpRequest.newBuilder()
+                .uri(uri)
+                .timeout(Duration.ofSeconds(60))
+                .header("User-Agent", USER_AGENT);
+    }
+
+    public static <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler)
+            throws IOException, InterruptedException {
+        try {
+            HttpResponse<T> response = CLIENT.send(request, handler);
+            ConnectivityService.reportSuccess();
+            return response;
+        } catch (IOException e) {
+            ConnectivityService.reportFailure(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the client's own future rather than a dependent stage, so that cancelling it aborts
+     * the exchange.
+     */
+    public static <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                                                                   HttpResponse.BodyHandler<T> handler) {
+        CompletableFuture<HttpResponse<T>> exchange = CLIENT.sendAsync(request, handler);
+        exchange.whenComplete((response, error) -> {
+            if (error == null) {
+                ConnectivityService.reportSuccess();
+            } else {
+                ConnectivityService.reportFailure(error);
+            }
+        });
+        return exchange;
+    }
+
+    /**
+     * Blocks until a stream slot for the host of {@code uri} is free.
+     * The permit has to be held until the response body is fully consumed.
+     */
+    public static HostPermit acquire(URI uri) throws InterruptedException {
+        Semaphore permits = permitsFor(uri);
+        permits.acquire();
+        return new HostPermit(permits);
+    }
+
+    /**
+     * Like {@link #acquire} but returns null instead of waiting when the host has no free slot.
+     */
+    public static HostPermit tryAcquire(URI uri) {
+        Semaphore permits = permitsFor(uri);
+        return permits.tryAcquire() ? new HostPermit(permits) : null;
+    }
+
+    private static Semaphore permitsFor(URI uri) {
+        String host = uri.getHost() == null ? "" : uri.getHost().toLowerCase();
+        int limit = SettingsUtil.getMaxStreamsPerHost();
+        HostSlots slots = HOST_PERMITS.computeIfAbsent(host, h -> new HostSlots(limit));
+        slots.resize(limit);
+        return slots;
+    }
+
+    /**
+     * Stream slots of one host, following {@code maxStreamsPerHost} as it changes. A lower limit
+     * takes effect as running streams finish.
+     */
+    private static final class HostSlots extends Semaphore {
+        private static final long serialVersionUID = 1L;
+
+        private int size;
+
+        HostSlots(int size) {
+            super(size, true);
+            this.size = size;
+        }
+
+        synchronized void resize(int wanted) {
+            if (wanted > size) {
+                release(wanted - size);
+            } else if (wanted < size) {
+                reducePermits(size - wanted);
+            }
+            size = wanted;
+        }
+    }
+
+    public static final class HostPermit implements AutoCloseable {
+        private final Semaphore permits;
+        private boolean released;
+
+        private HostPermit(Semaphore permits) {
+            this.permits = permits;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                permits.release();
+            }
+        }
+    }
+}
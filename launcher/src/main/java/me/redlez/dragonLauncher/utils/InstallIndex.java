@@ -0,0 +1,175 @@
+package me.redlez.dragonLauncher.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * On-disk record of every artifact that passed verification (path, size, sha1, mtime).
+ * A file whose size and mtime still match its entry is trusted without hashing, so a warm
+ * launch costs one attribute read per file and nothing more once confirmed in this session.
+ */
+public class InstallIndex {
+
+    private static final LoggerUtil LOGGER = new LoggerUtil("InstallIndex");
+    private static final int MAGIC = 0x444C4958; // "DLIX"
+    private static final int FORMAT_VERSION = 1;
+    private static final Map<Path, InstallIndex> INSTANCES = new ConcurrentHashMap<>();
+
+    private record Entry(long size, long mtime, String sha1) {}
+
+    private final Path baseDir;
+    private final Path indexFile;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<String> confirmed = ConcurrentHashMap.newKeySet();
+    private volatile boolean dirty;
+
+    private InstallIndex(Path baseDir) {
+        this.baseDir = baseDir;
+        this.indexFile = baseDir.resolve("install-index.bin");
+        load();
+    }
+
+    public static InstallIndex forDir(Path baseDir) {
+        return INSTANCES.computeIfAbsent(baseDir.toAbsolutePath().normalize(), InstallIndex::new);
+    }
+
+    /**
+     * Returns true when the file at {@code path} is present with the expected size and hash.
+     * Unknown or modified files are hashed once and recorded if they pass.
+     */
+    public boolean isVerified(Path path, long size, String sha1) {
+        String key = key(path);
+        Entry entry = entries.get(key);
+        if (entry != null && confirmed.contains(key) && matches(entry, size, sha1)) {
+            return true;
+        }
+
+        Path file = baseDir.resolve(path);
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            forget(key);
+            return false;
+        }
+        long mtime = attrs.lastModifiedTime().toMillis();
+
+        if (entry != null && entry.mtime() == mtime && matches(entry, size, sha1)) {
+            confirmed.add(key);
+            return true;
+        }
+        if (attrs.size() != size) {
+            forget(key);
+            return false;
+        }
+
+        try {
+            String actual = HashUtil.sha1(file);
+            if (!HashUtil.matches(sha1, actual)) {
+                forget(key);
+                return false;
+            }
+            put(key, new Entry(size, mtime, actual));
+            return true;
+        } catch (IOException e) {
+            forget(key);
+            return false;
+        }
+    }
+
+    public void record(Path path, long size, String sha1) {
+        try {
+            long mtime = Files.getLastModifiedTime(baseDir.resolve(path)).toMillis();
+            put(key(path), new Entry(size, mtime, sha1));
+        } catch (IOException e) {
+            LOGGER.warning("Could not index " + path + ": " + e.getMessage());
+        }
+    }
+
+    private boolean matches(Entry entry, long size, String sha1) {
+        return entry.size() == size && HashUtil.matches(sha1, entry.sha1());
+    }
+
+    private void put(String key, Entry entry) {
+        entries.put(key, entry);
+        confirmed.add(key);
+        dirty = true;
+    }
+
+    private void forget(String key) {
+        confirmed.remove(key);
+        if (entries.remove(key) != null) dirty = true;
+    }
+
+    private String key(Path path) {
+        Path absolute = baseDir.resolve(path).normalize();
+        return baseDir.relativize(absolute).toString().replace('\\', '/');
+    }
+
+    private void load() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                LOGGER.warning("Ignoring install index with unknown format");
+                return;
+            }
+            int count = in.readInt();
+            byte[] hash = new byte[20];
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                long size = in.readLong();
+                long mtime = in.readLong();
+                String sha1 = null;
+                if (in.readBoolean()) {
+                    in.readFully(hash);
+                    sha1 = HashUtil.toHex(hash);
+                }
+                entries.put(key, new Entry(size, mtime, sha1));
+            }
+        } catch (NoSuchFileException e) {
+            // first run
+        } catch (IOException e) {
+            LOGGER.warning("Install index unreadable, rebuilding: " + e.getMessage());
+            entries.clear();
+        }
+    }
+
+    public synchronized void save() {
+        if (!dirty) return;
+        dirty = false;
+        Path tmp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(baseDir);
+            Map<String, Entry> snapshot = Map.copyOf(entries);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(snapshot.size());
+                for (Map.Entry<String, Entry> e : snapshot.entrySet()) {
+                    Entry entry = e.getValue();
+                    out.writeUTF(e.getKey());
+                    out.writeLong(entry.size());
+                    out.writeLong(entry.mtime());
+                    boolean hasHash = entry.sha1() != null && entry.sha1().length() == 40;
+                    out.writeBoolean(hasHash);
+                    if (hasHash) out.write(HexFormat.of().parseHex(entry.sha1()));
+                }
+            }
+            Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            LOGGER.warning("Could not save install index: " + e.getMessage());
+        }
+    }
+}
@@ -45,7 +45,7 @@ public class JavaManager {
         Files.createDirectories(javaDir);
 
         Path archive = JAVA_DIR.resolve("jdk-" + version + "." + ext);
-        DownloadManager.downloadFile(javaUrl, archive);
+        DownloadManager.downloadFile(javaUrl, archive, true);
 
         ArchiveUtils.unzipOrUntar(archive, javaDir);
         Files.deleteIfExists(archive);
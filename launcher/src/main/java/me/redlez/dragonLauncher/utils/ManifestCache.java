@@ -0,0 +1,143 @@
+package me.redlez.dragonLauncher.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * The Mojang version manifest, parsed once and kept in memory. A copy older than an hour is still
+ * returned at once while a conditional request ({@code If-None-Match}/{@code If-Modified-Since})
+ * revalidates it in the background; usually the answer is a body-less 304.
+ */
+public final class ManifestCache {
+
+    private static final LoggerUtil LOGGER = new LoggerUtil("ManifestCache");
+
+    private static final String VERSION_MANIFEST = "https://launchermeta.mojang.com/mc/game/version_manifest.json";
+    private static final Path CACHE_FILE = Paths.get(System.getProperty("user.home"), ".minecraft", "versions_cache.json");
+    private static final Path META_FILE = CACHE_FILE.resolveSibling("versions_cache.json.meta");
+    private static final long MAX_AGE_MS = 60 * 60 * 1000;
+
+    private static final AtomicBoolean revalidating = new AtomicBoolean();
+
+    private static volatile JsonObject manifest;
+    private static volatile long checkedAt;
+
+    private ManifestCache() {}
+
+    /**
+     * The manifest, from memory when possible. Only the very first call of a machine without a
+     * cached copy waits for the network.
+     */
+    public static JsonObject get() throws IOException, InterruptedException {
+        JsonObject current = manifest;
+        if (current == null) {
+            current = load();
+        }
+        if (System.currentTimeMillis() - checkedAt > MAX_AGE_MS) {
+            revalidateInBackground();
+        }
+        return current;
+    }
+
+    /** Starts a background revalidation unless one is already running. */
+    public static void revalidateInBackground() {
+        if (!revalidating.compareAndSet(false, true)) return;
+        Thread.ofVirtual().name("manifest-revalidate").start(() -> {
+            try {
+                revalidate();
+            } catch (IOException e) {
+                LOGGER.warning("Could not revalidate the version manifest: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                revalidating.set(false);
+            }
+        });
+    }
+
+    private static synchronized JsonObject load() throws IOException, InterruptedException {
+        if (manifest != null) return manifest;
+
+        if (Files.exists(CACHE_FILE)) {
+            try {
+                manifest = JsonParser.parseString(Files.readString(CACHE_FILE)).getAsJsonObject();
+                Properties meta = readMeta();
+                checkedAt = Long.parseLong(meta.getProperty("checkedAt", "0"));
+                return manifest;
+            } catch (RuntimeException e) {
+                LOGGER.warning("Discarding unreadable manifest cache: " + e.getMessage());
+                Files.deleteIfExists(META_FILE);
+            }
+        }
+        revalidate();
+        return manifest;
+    }
+
+    private static synchronized void revalidate() throws IOException, InterruptedException {
+        Properties meta = manifest != null ? readMeta() : new Properties();
+        HttpRequest.Builder request = HttpUtil.request(VERSION_MANIFEST).header("Accept-Encoding", "gzip");
+        String etag = meta.getProperty("etag");
+        String lastModified = meta.getProperty("lastModified");
+        if (etag != null) request.header("If-None-Match", etag);
+        if (lastModified != null) request.header("If-Modified-Since", lastModified);
+
+        HttpResponse<InputStream> response = HttpUtil.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        int status = response.statusCode();
+        if (status == 304) {
+            response.body().close();
+        } else if (status == 200) {
+            String body;
+            boolean gzip = response.headers().firstValue("Content-Encoding").orElse("").equalsIgnoreCase("gzip");
+            try (InputStream in = gzip ? new GZIPInputStream(response.body()) : response.body()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            JsonObject parsed = JsonParser.parseString(body).getAsJsonObject();
+
+            Files.createDirectories(CACHE_FILE.getParent());
+            Path temp = CACHE_FILE.resolveSibling(CACHE_FILE.getFileName() + ".tmp");
+            Files.writeString(temp, body);
+            Files.move(temp, CACHE_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            meta.clear();
+            response.headers().firstValue("ETag").ifPresent(v -> meta.setProperty("etag", v));
+            response.headers().firstValue("Last-Modified").ifPresent(v -> meta.setProperty("lastModified", v));
+            manifest = parsed;
+            LOGGER.info("Version manifest updated");
+        } else {
+            response.body().close();
+            throw new HttpStatusException(response);
+        }
+
+        checkedAt = System.currentTimeMillis();
+        meta.setProperty("checkedAt", String.valueOf(checkedAt));
+        try (OutputStream out = Files.newOutputStream(META_FILE)) {
+            meta.store(out, "DragonLauncher version manifest validators");
+        }
+    }
+
+    private static Properties readMeta() {
+        Properties meta = new Properties();
+        if (Files.exists(META_FILE)) {
+            try (InputStream in = Files.newInputStream(META_FILE)) {
+                meta.load(in);
+            } catch (IOException e) {
+                // Without validators the next check downloads the full manifest
+            }
+        }
+        return meta;
+    }
+}
@@ -0,0 +1,169 @@
+package me.redlez.dragonLauncher.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import me.redlez.dragonLauncher.utils.VersionHandler.Downloadable;
+import me.redlez.dragonLauncher.utils.VersionHandler.VersionMetadata;
+
+/**
+ * Parsed {@link VersionMetadata} per version, keyed by the SHA-1 of its version JSON. Kept in
+ * memory for the life of the process, and as a binary snapshot next to the JSON that a cold start
+ * reads instead of parsing the version JSON and the asset index again. The instances are shared:
+ * callers must not modify them.
+ */
+final class MetadataCache {
+
+    private static final LoggerUtil LOGGER = new LoggerUtil("MetadataCache");
+
+    private static final String SNAPSHOT = ".metadata.bin";
+    private static final int MAGIC = 0x444c564d; // "DLVM"
+    private static final int FORMAT = 1;
+
+    private record Entry(long modified, long length, String sha1, VersionMetadata metadata) {}
+
+    private static final Map<String, Entry> MEMO = new ConcurrentHashMap<>();
+
+    private MetadataCache() {}
+
+    /**
+     * The complete metadata for {@code versionJson} as it is now, from memory or the snapshot,
+     * or null when it has to be parsed.
+     */
+    static VersionMetadata lookup(String version, Path versionJson) throws IOException {
+        // An unchanged file is not even read again
+        BasicFileAttributes attributes = Files.readAttributes(versionJson, BasicFileAttributes.class);
+        long modified = attributes.lastModifiedTime().toMillis();
+        Entry cached = MEMO.get(version);
+        if (cached != null && cached.modified() == modified && cached.length() == attributes.size()) {
+            return cached.metadata();
+        }
+
+        String sha1 = sha1Of(versionJson);
+        VersionMetadata metadata = cached != null && cached.sha1().equals(sha1)
+                ? cached.metadata() : readSnapshot(versionJson.resolveSibling(SNAPSHOT), sha1);
+        if (metadata != null) {
+            MEMO.put(version, new Entry(modified, attributes.size(), sha1, metadata));
+        }
+        return metadata;
+    }
+
+    /** Remembers freshly parsed, complete metadata and writes its snapshot. */
+    static void store(String version, Path versionJson, VersionMetadata metadata) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(versionJson, BasicFileAttributes.class);
+        String sha1 = sha1Of(versionJson);
+        MEMO.put(version, new Entry(attributes.lastModifiedTime().toMillis(), attributes.size(), sha1, metadata));
+        try {
+            writeSnapshot(versionJson.resolveSibling(SNAPSHOT), sha1, metadata);
+        } catch (IOException e) {
+            LOGGER.warning("Could not write metadata snapshot for " + version + ": " + e.getMessage());
+        }
+    }
+
+    private static String sha1Of(Path file) throws IOException {
+        return HashUtil.toHex(HashUtil.newSha1().digest(Files.readAllBytes(file)));
+    }
+
+    /** Library selection depends on the platform, so a snapshot copied to another machine is not used. */
+    private static String platform() {
+        return OSUtils.getOS() + (OSUtils.isArm() ? "-arm64" : "");
+    }
+
+    // --- snapshot format: header, then the fields of VersionMetadata in declaration order ---
+
+    private static VersionMetadata readSnapshot(Path snapshot, String sha1) {
+        if (!Files.exists(snapshot)) return null;
+        try {
+            // Read into the heap, not mapped: Windows cannot replace a file while a mapping of it is alive
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(snapshot));
+            if (in.getInt() != MAGIC || in.getInt() != FORMAT
+                    || !sha1.equals(readString(in)) || !platform().equals(readString(in))) {
+                return null;
+            }
+
+            VersionMetadata metadata = new VersionMetadata();
+            int libraries = in.getInt();
+            for (int i = 0; i < libraries; i++) {
+                metadata.libraries.add(readDownloadable(in));
+            }
+            metadata.assets = AssetTable.read(in);
+            metadata.assetsIndexId = readString(in);
+            metadata.clientJar = readDownloadable(in);
+            metadata.assetIndex = readDownloadable(in);
+            metadata.versionJson = readDownloadable(in);
+            metadata.totalSize = in.getLong();
+            return metadata;
+        } catch (IOException | RuntimeException e) {
+            // Truncated or from an older format: parse the JSON again and overwrite it
+            return null;
+        }
+    }
+
+    private static void writeSnapshot(Path snapshot, String sha1, VersionMetadata metadata) throws IOException {
+        Path temp = snapshot.resolveSibling(SNAPSHOT + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            writeString(out, sha1);
+            writeString(out, platform());
+
+            out.writeInt(metadata.libraries.size());
+            for (Downloadable library : metadata.libraries) {
+                writeDownloadable(out, library);
+            }
+            metadata.assets.write(out);
+            writeString(out, metadata.assetsIndexId);
+            writeDownloadable(out, metadata.clientJar);
+            writeDownloadable(out, metadata.assetIndex);
+            writeDownloadable(out, metadata.versionJson);
+            out.writeLong(metadata.totalSize);
+        }
+        Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeDownloadable(DataOutputStream out, Downloadable file) throws IOException {
+        out.writeBoolean(file != null);
+        if (file == null) return;
+        writeString(out, file.url);
+        writeString(out, file.sha1);
+        out.writeLong(file.size);
+        writeString(out, file.path == null ? null : file.path.toString());
+    }
+
+    private static Downloadable readDownloadable(ByteBuffer in) {
+        if (in.get() == 0) return null;
+        String url = readString(in);
+        String sha1 = readString(in);
+        long size = in.getLong();
+        String path = readString(in);
+        return new Downloadable(url, sha1, size, path == null ? null : Paths.get(path));
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,395 @@
+package me.redlez.dragonLauncher.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Picks where an artifact is downloaded from. Each artifact class has its origin plus the mirrors
+ * configured in {@link SettingsUtil}; every mirror keeps a running score of first-byte latency and
+ * throughput, and the best one is asked first. When it is slow to answer, the request is raced
+ * against the runner-up and the loser is cancelled. Mirrors only change where bytes come from:
+ * the SHA-1 check in {@link FileDownloader} applies to every response.
+ * <p>
+ * A configured LAN cache ({@link CacheProxy}) goes before all of them, for any URL, and is never
+ * hedged: it may be busy filling a miss, and racing it would pull the file from the internet twice.
+ */
+public final class MirrorRouter {
+
+    private static final LoggerUtil LOGGER = new LoggerUtil("MirrorRouter");
+
+    public enum ArtifactClass {
+        ASSETS("assets", "https://resources.download.minecraft.net"),
+        LIBRARIES("libraries", "https://libraries.minecraft.net"),
+        FORGE("forge", "https://maven.minecraftforge.net"),
+        JAVA("java", "https://api.adoptium.net");
+
+        final String key;
+        final String origin;
+
+        ArtifactClass(String key, String origin) {
+            this.key = key;
+            this.origin = origin;
+        }
+    }
+
+    private static final long MIN_HEDGE_MS = 300;
+    private static final long DEFAULT_HEDGE_MS = 1000;
+    private static final long FAILURE_COOLDOWN_MS = 30_000;
+    private static final double SMOOTHING = 0.2;
+    // The cache answers a miss only after it has the whole file
+    private static final Duration CACHE_MISS_TIMEOUT = Duration.ofMinutes(30);
+
+    private static final Map<String, Mirror> MIRRORS = new ConcurrentHashMap<>();
+
+    private MirrorRouter() {}
+
+    /** A download source with its running scores. */
+    static final class Mirror {
+        final String base;
+        private double latencyMs = -1;
+        private double bytesPerSecond = -1;
+        private long coolDownUntil;
+
+        Mirror(String base) {
+            this.base = base;
+        }
+
+        synchronized void recordLatency(long nanos) {
+            double ms = nanos / 1e6;
+            latencyMs = latencyMs < 0 ? ms : latencyMs + SMOOTHING * (ms - latencyMs);
+        }
+
+        synchronized void recordTransfer(long bytes, long nanos) {
+            // Small files say more about latency than about bandwidth
+            if (bytes < 256 * 1024 || nanos <= 0) return;
+            double rate = bytes * 1e9 / nanos;
+            bytesPerSecond = bytesPerSecond < 0 ? rate : bytesPerSecond + SMOOTHING * (rate - bytesPerSecond);
+        }
+
+        synchronized void recordFailure() {
+            coolDownUntil = System.currentTimeMillis() + FAILURE_COOLDOWN_MS;
+        }
+
+        /** Expected milliseconds to fetch {@code size} bytes; unmeasured mirrors go first so they get measured. */
+        synchronized double score(long size) {
+            if (System.currentTimeMillis() < coolDownUntil) return Double.MAX_VALUE;
+            if (latencyMs < 0) return 0;
+            double transferMs = size > 0 && bytesPerSecond > 0 ? size * 1000.0 / bytesPerSecond : 0;
+            return latencyMs + transferMs;
+        }
+
+        synchronized long hedgeDelayMs() {
+            return latencyMs < 0 ? DEFAULT_HEDGE_MS : Math.max(MIN_HEDGE_MS, (long) (latencyMs * 3));
+        }
+    }
+
+    private record Candidate(Mirror mirror, URI uri, boolean cache) {
+        Candidate(Mirror mirror, URI uri) {
+            this(mirror, uri, false);
+        }
+    }
+
+    /** Both sides of a race failed; carries the error so the caller can move on to the next source. */
+    private static final class RaceLostException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        final IOException cause;
+
+        RaceLostException(IOException cause) {
+            super(cause);
+            this.cause = cause;
+        }
+    }
+
+    /**
+     * The winning response together with the host permit that has to be held while its body is read.
+     */
+    public static final class Response implements AutoCloseable {
+        private final HttpResponse<InputStream> http;
+        private final Mirror mirror;
+        private final CircuitBreaker breaker;
+        private final HttpUtil.HostPermit permit;
+        private final long startNanos = System.nanoTime();
+
+        private Response(HttpResponse<InputStream> http, Mirror mirror, URI source, HttpUtil.HostPermit permit) {
+            this.http = http;
+            this.mirror = mirror;
+            this.breaker = CircuitBreaker.forHost(source);
+            this.permit = permit;
+        }
+
+        public HttpResponse<InputStream> http() {
+            return http;
+        }
+
+        /** Feeds a finished body transfer into the mirror's throughput score. */
+        public void transferred(long bytes) {
+            if (mirror != null) mirror.recordTransfer(bytes, System.nanoTime() - startNanos);
+            breaker.recordSuccess();
+        }
+
+        /** The source misbehaved (server error, cut-off body): cool it down and count it against its host. */
+        public void failed() {
+            if (mirror != null) mirror.recordFailure();
+            breaker.recordFailure();
+        }
+
+        @Override
+        public void close() {
+            permit.close();
+        }
+    }
+
+    /**
+     * Sends a GET for {@code url} to the best source, hedging with the second best when the first
+     * has not answered within a few of its usual round trips. A source that cannot be reached at
+     * all is skipped for the next one. {@code headers} adds request headers such as {@code Range}.
+     */
+    public static Response open(String url, long expectedSize, Consumer<HttpRequest.Builder> headers)
+            throws IOException, InterruptedException {
+        return open(url, null, expectedSize, headers);
+    }
+
+    /** Like {@link #open(String, long, Consumer)}, letting the LAN cache look the file up by its hash. */
+    public static Response open(String url, String sha1, long expectedSize, Consumer<HttpRequest.Builder> headers)
+            throws IOException, InterruptedException {
+        List<Candidate> candidates = new ArrayList<>();
+        long parkedFor = Long.MAX_VALUE;
+        for (Candidate candidate : candidates(url, sha1, expectedSize)) {
+            CircuitBreaker breaker = CircuitBreaker.forHost(candidate.uri());
+            if (breaker.allow()) {
+                candidates.add(candidate);
+            } else {
+                parkedFor = Math.min(parkedFor, breaker.retryInMillis());
+            }
+        }
+        if (candidates.isEmpty()) {
+            throw new CircuitBreaker.OpenException(URI.create(url).getHost(), parkedFor);
+        }
+
+        IOException failure = null;
+        int next = 0;
+        while (next < candidates.size()) {
+            Candidate primary = candidates.get(next++);
+            HttpUtil.HostPermit primaryPermit = HttpUtil.acquire(primary.uri());
+            long start = System.nanoTime();
+            CompletableFuture<HttpResponse<InputStream>> first = send(primary, headers);
+            Response response = null;
+            try {
+                if (next < candidates.size() && !primary.cache() && !candidates.get(next).cache()) {
+                    try {
+                        response = answered(primary, first.get(primary.mirror().hedgeDelayMs(), TimeUnit.MILLISECONDS),
+                                primaryPermit, start);
+                    } catch (TimeoutException e) {
+                        Candidate backup = candidates.get(next);
+                        HttpUtil.HostPermit backupPermit = HttpUtil.tryAcquire(backup.uri());
+                        if (backupPermit != null) {
+                            next++;
+                            response = race(primary, first, primaryPermit, backup, backupPermit, headers, start);
+                        }
+                    }
+                }
+                if (response == null) {
+                    response = answered(primary, first.get(), primaryPermit, start);
+                }
+            } catch (ExecutionException e) {
+                failure = unwrap(e);
+                penalize(primary, failure);
+                primaryPermit.close();
+            } catch (RaceLostException e) {
+                failure = e.cause;
+            } catch (InterruptedException e) {
+                abandon(first);
+                primaryPermit.close();
+                throw e;
+            }
+
+            if (response != null) {
+                // A 404 or 403 from a mirror says nothing about the origin; the last source's answer stands
+                if (usable(response.http()) || next >= candidates.size()) return response;
+                // Only the primary can get here: a race is won by usable answers only
+                failure = new HttpStatusException(response.http());
+                closeQuietly(response.http());
+                response.close();
+                penalize(primary, failure);
+            }
+            if (next < candidates.size()) {
+                LOGGER.warning("Source failed, trying the next one: " + failure);
+            }
+        }
+        throw failure;
+    }
+
+    private static Response answered(Candidate candidate, HttpResponse<InputStream> response,
+                                     HttpUtil.HostPermit permit, long start) {
+        if (candidate.mirror() != null) candidate.mirror().recordLatency(System.nanoTime() - start);
+        return new Response(response, candidate.mirror(), candidate.uri(), permit);
+    }
+
+    /**
+     * The URL of the best-scoring source, for callers that pick a source once and then issue
+     * several requests against it.
+     */
+    public static String preferred(String url, long expectedSize) {
+        return candidates(url, null, expectedSize).stream()
+                .filter(c -> !c.cache())
+                .findFirst().orElseThrow().uri().toString();
+    }
+
+    private static Response race(Candidate primary, CompletableFuture<HttpResponse<InputStream>> first,
+                                 HttpUtil.HostPermit primaryPermit, Candidate backup,
+                                 HttpUtil.HostPermit backupPermit, Consumer<HttpRequest.Builder> headers,
+                                 long start) throws RaceLostException, InterruptedException {
+        LOGGER.info("Slow first byte from " + primary.uri().getHost() + ", racing " + backup.uri().getHost());
+        long hedgeStart = System.nanoTime();
+        CompletableFuture<HttpResponse<InputStream>> second = send(backup, headers);
+
+        List<CompletableFuture<HttpResponse<InputStream>>> racers = List.of(first, second);
+        List<Candidate> sources = List.of(primary, backup);
+        CompletableFuture<Integer> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (int i = 0; i < racers.size(); i++) {
+            int index = i;
+            racers.get(i).whenComplete((response, error) -> {
+                if (error == null && usable(response) && winner.complete(index)) return;
+                if (error == null) {
+                    // Lost the race after answering, or answered with an error status: drop the body so the stream is released
+                    closeQuietly(response);
+                    if (usable(response)) return;
+                    error = new HttpStatusException(response);
+                } else if (racers.get(index).isCancelled()) {
+                    // The other side won, or the caller gave up
+                    return;
+                }
+                IOException cause = error instanceof IOException io ? io
+                        : error.getCause() instanceof IOException io ? io : new IOException(error);
+                penalize(sources.get(index), cause);
+                if (failures.incrementAndGet() == racers.size()) {
+                    winner.completeExceptionally(cause);
+                }
+            });
+        }
+
+        int won;
+        try {
+            won = winner.get();
+        } catch (ExecutionException e) {
+            primaryPermit.close();
+            backupPermit.close();
+            throw new RaceLostException(unwrap(e));
+        } catch (InterruptedException e) {
+            abandon(first);
+            abandon(second);
+            primaryPermit.close();
+            backupPermit.close();
+            throw e;
+        }
+
+        Candidate winning = won == 0 ? primary : backup;
+        Candidate losing = won == 0 ? backup : primary;
+        abandon(racers.get(1 - won));
+        (won == 0 ? backupPermit : primaryPermit).close();
+        // The loser answered later than the winner did, if at all: that is what its score should remember
+        long elapsed = System.nanoTime() - (won == 0 ? start : hedgeStart);
+        winning.mirror().recordLatency(elapsed);
+        losing.mirror().recordLatency(System.nanoTime() - (won == 0 ? hedgeStart : start));
+        return new Response(racers.get(won).join(), winning.mirror(), winning.uri(), won == 0 ? primaryPermit : backupPermit);
+    }
+
+    private static CompletableFuture<HttpResponse<InputStream>> send(Candidate candidate,
+                                                                     Consumer<HttpRequest.Builder> headers) {
+        HttpRequest.Builder builder = HttpUtil.request(candidate.uri());
+        if (candidate.cache()) builder.timeout(CACHE_MISS_TIMEOUT);
+        if (headers != null) headers.accept(builder);
+        return HttpUtil.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+    }
+
+    private static List<Candidate> candidates(String url, String sha1, long expectedSize) {
+        List<Candidate> candidates = sources(url, expectedSize);
+        URI cached = CacheProxy.uriFor(url, sha1, expectedSize, -1);
+        if (cached != null) {
+            Mirror cache = mirror(SettingsUtil.getCacheProxy());
+            // A cache that just failed goes last instead of first until its cool-down ends
+            boolean coolingDown = cache.score(expectedSize) == Double.MAX_VALUE;
+            candidates = new ArrayList<>(candidates);
+            candidates.add(coolingDown ? candidates.size() : 0, new Candidate(cache, cached, true));
+        }
+        return candidates;
+    }
+
+    private static List<Candidate> sources(String url, long expectedSize) {
+        for (ArtifactClass artifactClass : ArtifactClass.values()) {
+            if (!url.startsWith(artifactClass.origin + "/")) continue;
+
+            String path = url.substring(artifactClass.origin.length());
+            List<Candidate> candidates = new ArrayList<>();
+            for (String base : SettingsUtil.getMirrors(artifactClass.key)) {
+                Mirror mirror = mirror(base);
+                candidates.add(new Candidate(mirror, URI.create(mirror.base + path)));
+            }
+            candidates.add(new Candidate(mirror(artifactClass.origin), URI.create(url)));
+            candidates.sort(Comparator.comparingDouble(c -> c.mirror().score(expectedSize)));
+            return candidates;
+        }
+        return List.of(new Candidate(null, URI.create(url)));
+    }
+
+    private static Mirror mirror(String base) {
+        String key = base.endsWith("/") ? base.substring(0, base.length() - 1) : base;
+        return MIRRORS.computeIfAbsent(key, Mirror::new);
+    }
+
+    /** Statuses the caller can work with; 416 tells it its resume range is stale. */
+    private static boolean usable(HttpResponse<?> response) {
+        int status = response.statusCode();
+        return status / 100 == 2 || status == 416;
+    }
+
+    /**
+     * Cools a failed source down. Only errors that say something about the host count against its
+     * breaker: a 404 from one mirror does not make the host unhealthy.
+     */
+    private static void penalize(Candidate candidate, IOException cause) {
+        if (candidate.mirror() != null) candidate.mirror().recordFailure();
+        if (!(cause instanceof HttpStatusException status) || status.getStatus() >= 500 || status.getStatus() == 429) {
+            CircuitBreaker.forHost(candidate.uri()).recordFailure();
+        }
+    }
+
+    /**
+     * Aborts an exchange that is no longer wanted. When it already has its response, the body is
+     * closed instead so that the stream is released.
+     */
+    private static void abandon(CompletableFuture<HttpResponse<InputStream>> exchange) {
+        if (!exchange.cancel(true)) {
+            exchange.thenAccept(MirrorRouter::closeQuietly);
+        }
+    }
+
+    private static void closeQuietly(HttpResponse<InputStream> response) {
+        try {
+            response.body().close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static IOException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        return cause instanceof IOException io ? io : new IOException(cause);
+    }
+}
@@ -0,0 +1,136 @@
+package me.redlez.dragonLauncher.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Native libraries extracted once per jar, under {@code ~/.dragonLauncher/natives/<sha1>/} with a
+ * {@code .manifest} listing the files. A version's {@code -natives} directory is then filled with
+ * links to those files, so a warm launch reads one small manifest per jar instead of opening the jar.
+ */
+public final class NativesCache {
+
+    private static final LoggerUtil LOGGER = new LoggerUtil("NativesCache");
+    private static final Path CACHE = Paths.get(System.getProperty("user.home"), ".dragonLauncher", "natives");
+    private static final String MANIFEST = ".manifest";
+
+    private static final SingleFlight<String, List<String>> EXTRACTING = new SingleFlight<>();
+
+    private NativesCache() {}
+
+    /**
+     * Makes {@code nativesDir} hold the native libraries of {@code jar}.
+     *
+     * @param sha1 the jar's hash if known, otherwise it is computed
+     * @return the installed files, relative to {@code nativesDir}
+     */
+    public static List<String> install(Path jar, String sha1, Path nativesDir) throws IOException, InterruptedException {
+        String key = sha1 != null && sha1.length() == 40 ? sha1.toLowerCase() : HashUtil.sha1(jar);
+        Path entry = CACHE.resolve(key);
+
+        List<String> files = readManifest(entry);
+        if (files == null) {
+            files = EXTRACTING.run(key, () -> {
+                List<String> existing = readManifest(entry);
+                return existing != null ? existing : extract(jar, entry);
+            });
+        }
+        for (String name : files) {
+            ArtifactStore.link(entry.resolve(name), nativesDir.resolve(name));
+        }
+        return files;
+    }
+
+    /**
+     * Removes files from {@code nativesDir} that none of the current jars provided, e.g. after a library update.
+     */
+    public static void prune(Path nativesDir, Set<String> keep) {
+        if (!Files.isDirectory(nativesDir)) return;
+        try (Stream<Path> walk = Files.walk(nativesDir)) {
+            List<Path> stale = walk.filter(Files::isRegularFile)
+                    .filter(p -> !keep.contains(nativesDir.relativize(p).toString().replace('\\', '/')))
+                    .toList();
+            for (Path file : stale) {
+                Files.deleteIfExists(file);
+            }
+            if (!stale.isEmpty()) {
+                LOGGER.info("Removed " + stale.size() + " stale native files from " + nativesDir.getFileName());
+            }
+        } catch (IOException e) {
+            LOGGER.warning("Failed to prune natives folder: " + e.getMessage());
+        }
+    }
+
+    private static List<String> extract(Path jar, Path entry) throws IOException {
+        Path staging = entry.resolveSibling(entry.getFileName() + ".tmp");
+        deleteTree(staging);
+        Files.createDirectories(staging);
+
+        List<String> files = new ArrayList<>();
+        try (ZipFile zip = new ZipFile(jar.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry zipEntry = entries.nextElement();
+                String name = zipEntry.getName();
+                if (zipEntry.isDirectory() || name.contains("META-INF") || !isNative(name)) continue;
+
+                Path target = staging.resolve(name).normalize();
+                if (!target.startsWith(staging)) continue; // entry pointing outside the directory
+                Files.createDirectories(target.getParent());
+                try (InputStream in = zip.getInputStream(zipEntry)) {
+                    Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+                files.add(name);
+            }
+        }
+        // Written last: an entry with a manifest is complete
+        Files.write(staging.resolve(MANIFEST), files, StandardCharsets.UTF_8);
+
+        try {
+            Files.move(staging, entry, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Another launcher process finished the same jar first
+            deleteTree(staging);
+            List<String> existing = readManifest(entry);
+            if (existing == null) throw e;
+            return existing;
+        }
+        LOGGER.info("Extracted " + files.size() + " natives from " + jar.getFileName());
+        return files;
+    }
+
+    private static List<String> readManifest(Path entry) {
+        Path manifest = entry.resolve(MANIFEST);
+        try {
+            return Files.readAllLines(manifest, StandardCharsets.UTF_8).stream().filter(l -> !l.isBlank()).toList();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static boolean isNative(String name) {
+        return name.endsWith(".dll") || name.endsWith(".so") || name.endsWith(".dylib");
+    }
+
+    private static void deleteTree(Path dir) throws IOException {
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> walk = Files.walk(dir)) {
+            for (Path p : walk.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+}
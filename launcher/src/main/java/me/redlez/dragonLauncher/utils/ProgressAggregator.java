@@ -0,0 +1,113 @@
+package me.redlez.dragonLauncher.utils;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects byte counts from every transfer thread in striped counters and hands the listener
+ * one {@link ProgressSnapshot} per tick instead of one callback per buffer read.
+ */
+public class ProgressAggregator {
+
+    private static final long PUBLISH_INTERVAL_MS = 50;
+    // Weight of the newest sample in the throughput average
+    private static final double SMOOTHING = 0.2;
+
+    private static final ScheduledExecutorService PUBLISHER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "download-progress");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder downloadedBytes = new LongAdder();
+    private final LongAdder completedFiles = new LongAdder();
+    private volatile long totalBytes;
+    private volatile int totalFiles;
+    private volatile DownloadListener listener;
+
+    private ScheduledFuture<?> task;
+    private long lastBytes;
+    private long lastTick;
+    private double bytesPerSecond;
+    private ProgressSnapshot lastPublished;
+
+    public ProgressAggregator(long totalBytes, int totalFiles) {
+        this.totalBytes = totalBytes;
+        this.totalFiles = totalFiles;
+    }
+
+    public void setListener(DownloadListener listener) {
+        this.listener = listener;
+    }
+
+    public void setTotals(long totalBytes, int totalFiles) {
+        this.totalBytes = totalBytes;
+        this.totalFiles = totalFiles;
+    }
+
+    /** Bytes received from the network. May be negative to undo a discarded partial. */
+    public void addBytes(long bytes) {
+        downloadedBytes.add(bytes);
+    }
+
+    public void fileCompleted() {
+        completedFiles.increment();
+    }
+
+    public long getDownloadedBytes() {
+        return downloadedBytes.sum();
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized void start() {
+        if (task != null) return;
+        lastTick = System.nanoTime();
+        lastBytes = downloadedBytes.sum();
+        task = PUBLISHER.scheduleAtFixedRate(this::publish, PUBLISH_INTERVAL_MS, PUBLISH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /** Stops the ticker and publishes the final state. */
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+        publish();
+    }
+
+    public synchronized ProgressSnapshot snapshot() {
+        long now = System.nanoTime();
+        long bytes = downloadedBytes.sum();
+        long elapsed = now - lastTick;
+        if (elapsed > 0) {
+            double sample = Math.max(0, bytes - lastBytes) * 1e9 / elapsed;
+            bytesPerSecond = bytesPerSecond == 0 ? sample : bytesPerSecond + SMOOTHING * (sample - bytesPerSecond);
+        }
+        lastTick = now;
+        lastBytes = bytes;
+
+        long total = totalBytes;
+        long remaining = Math.max(0, total - bytes);
+        long eta = bytesPerSecond > 1 ? (long) Math.ceil(remaining / bytesPerSecond) : (remaining == 0 ? 0 : -1);
+        return new ProgressSnapshot(bytes, total,
+                (int) completedFiles.sum(), totalFiles, bytesPerSecond, eta);
+    }
+
+    private synchronized void publish() {
+        DownloadListener current = listener;
+        ProgressSnapshot snapshot = snapshot();
+        if (current == null || snapshot.equals(lastPublished)) return;
+        lastPublished = snapshot;
+        try {
+            current.onProgress(snapshot);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package me.redlez.dragonLauncher.utils;
+
+/**
+ * Point-in-time view of an install, published at a fixed rate by {@link ProgressAggregator}.
+ * {@code etaSeconds} is -1 while the throughput is still unknown.
+ */
+public record ProgressSnapshot(long downloadedBytes, long totalBytes, int completedFiles, int totalFiles,
+                               double bytesPerSecond, long etaSeconds) {
+
+    public double fraction() {
+        return totalBytes <= 0 ? 0 : Math.min(1.0, (double) downloadedBytes / totalBytes);
+    }
+
+    public boolean isComplete() {
+        return totalFiles > 0 && completedFiles >= totalFiles;
+    }
+}
@@ -0,0 +1,58 @@
+package me.redlez.dragonLauncher.utils;
+
+import java.io.FileNotFoundException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * When and how often a failed transfer is tried again. Delays grow exponentially with random jitter,
+ * so files that failed together do not retry together, and a server's {@code Retry-After} wins
+ * when it sent one.
+ */
+public final class RetryPolicy {
+
+    public static final RetryPolicy DEFAULT = new RetryPolicy(5, 500, 30_000);
+
+    // A server asking for longer than this is treated as down for this session
+    private static final long MAX_RETRY_AFTER_MS = 120_000;
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+
+    public RetryPolicy(int maxAttempts, long baseDelayMs, long maxDelayMs) {
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Whether {@code attempt} (1-based) failing with {@code error} should be followed by another one.
+     */
+    public boolean shouldRetry(int attempt, Exception error) {
+        if (attempt >= maxAttempts) return false;
+        if (error instanceof FileNotFoundException) return false;
+        if (error instanceof HttpStatusException status) {
+            int code = status.getStatus();
+            // Client errors will not change on retry, except timeouts and rate limiting
+            if (code >= 400 && code < 500 && code != 408 && code != 429) return false;
+            if (status.getRetryAfterMillis() > MAX_RETRY_AFTER_MS) return false;
+        }
+        return true;
+    }
+
+    /** Milliseconds to wait after {@code attempt} (1-based) failed with {@code error}. */
+    public long delayMillis(int attempt, Exception error) {
+        if (error instanceof CircuitBreaker.OpenException open) {
+            return open.getRetryInMillis();
+        }
+        if (error instanceof HttpStatusException status && status.getRetryAfterMillis() >= 0) {
+            return status.getRetryAfterMillis();
+        }
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+    }
+}
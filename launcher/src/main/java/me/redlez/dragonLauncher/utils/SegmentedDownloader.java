@@ -0,0 +1,236 @@
+package me.redlez.dragonLauncher.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fetches one large file over several connections, each downloading its own byte range and writing
+ * it at its offset in a full-length {@code .tmp} file. Per-segment progress lives in the same
+ * {@code .tmp.meta} sidecar used by {@link FileDownloader}, so an interrupted transfer resumes
+ * every segment where it stopped.
+ */
+final class SegmentedDownloader {
+
+    private static final LoggerUtil LOGGER = new LoggerUtil("SegmentedDownloader");
+
+    static final long THRESHOLD = 16L * 1024 * 1024;
+    private static final long MIN_SEGMENT = 4L * 1024 * 1024;
+    private static final int MAX_SEGMENTS = 6;
+    private static final long PROGRESS_SAVE_INTERVAL = 8L * 1024 * 1024;
+
+    private SegmentedDownloader() {}
+
+    /**
+     * @return the SHA-1 of the downloaded file, or null when the server does not support ranges
+     *         and the caller should fall back to a single stream
+     */
+    static String fetch(String url, Path target, long expectedSize, String sha1, FileDownloader.ProgressSink sink)
+            throws IOException, InterruptedException {
+        // Ranges would go around the LAN cache, and one stream already runs at LAN speed there
+        if (CacheProxy.uriFor(url, sha1, expectedSize, -1) != null) return null;
+
+        Path tempPath = FileDownloader.tempPath(target);
+        Path metaPath = FileDownloader.metaPath(target);
+        Files.createDirectories(target.getParent());
+
+        // Probe with a one-byte range: tells us range support, the total size and the final URL after redirects
+        URI uri = URI.create(MirrorRouter.preferred(url, expectedSize));
+        HttpResponse<InputStream> probe;
+        HttpUtil.HostPermit probePermit = HttpUtil.acquire(uri);
+        try {
+            probe = HttpUtil.send(HttpUtil.request(uri).header("Range", "bytes=0-0").build(),
+                    HttpResponse.BodyHandlers.ofInputStream());
+            probe.body().close();
+        } finally {
+            probePermit.close();
+        }
+        long total = totalOfRange(probe);
+        if (probe.statusCode() != 206 || total <= 0 || total < THRESHOLD) {
+            return null;
+        }
+        if (expectedSize > 0 && total != expectedSize) {
+            throw new IOException("Size mismatch before download: " + total + " != " + expectedSize);
+        }
+        URI resolved = probe.uri();
+        String etag = probe.headers().firstValue("ETag").orElse(null);
+        String lastModified = probe.headers().firstValue("Last-Modified").orElse(null);
+
+        int segments = (int) Math.min(MAX_SEGMENTS, Math.max(1, total / MIN_SEGMENT));
+        long segmentSize = (total + segments - 1) / segments;
+        AtomicLongArray done = new AtomicLongArray(segments);
+
+        Properties meta = FileDownloader.readMeta(metaPath);
+        if (canResume(meta, url, total, sha1, segments, etag, lastModified) && Files.exists(tempPath)
+                && Files.size(tempPath) == total) {
+            for (int i = 0; i < segments; i++) {
+                done.set(i, Long.parseLong(meta.getProperty("done." + i, "0")));
+            }
+            LOGGER.info("Resuming segmented download of " + target.getFileName());
+        } else {
+            try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                setLength(channel, total);
+            }
+            meta = new Properties();
+            meta.setProperty("url", url);
+            meta.setProperty("size", String.valueOf(total));
+            if (sha1 != null) meta.setProperty("sha1", sha1);
+            if (etag != null) meta.setProperty("etag", etag);
+            if (lastModified != null) meta.setProperty("lastModified", lastModified);
+            meta.setProperty("segments", String.valueOf(segments));
+            saveProgress(metaPath, meta, done);
+        }
+
+        LOGGER.info("Downloading " + target.getFileName() + " in " + segments + " segments ("
+                + total + " bytes)");
+        String validator = etag != null && !etag.startsWith("W/") ? etag : lastModified;
+        Properties progressMeta = meta;
+
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.WRITE);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < segments; i++) {
+                int segment = i;
+                long start = segment * segmentSize;
+                long end = Math.min(total, start + segmentSize) - 1;
+                futures.add(executor.submit(() -> {
+                    fetchSegment(resolved, validator, channel, segment, start, end, done, sink, metaPath, progressMeta);
+                    return null;
+                }));
+            }
+
+            IOException failure = null;
+            try {
+                for (Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        if (failure == null) {
+                            failure = e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Pause or cancel: interrupt the segments, otherwise closing the executor waits for all of them
+                executor.shutdownNow();
+                throw e;
+            } finally {
+                // Also when interrupted: this is what resumes every segment where it stopped
+                saveProgress(metaPath, progressMeta, done);
+            }
+            if (failure != null) throw failure;
+            channel.force(false);
+        }
+
+        // Ranges arrive out of order, so the hash needs one pass over the finished file
+        return FileDownloader.finish(target, total, sha1, HashUtil.update(HashUtil.newSha1(), tempPath, total));
+    }
+
+    private static void fetchSegment(URI uri, String validator, FileChannel channel, int segment, long start, long end,
+                                     AtomicLongArray done, FileDownloader.ProgressSink sink, Path metaPath,
+                                     Properties meta) throws IOException, InterruptedException {
+        long position = start + done.get(segment);
+        if (position > end) return;
+
+        HttpRequest.Builder builder = HttpUtil.request(uri).header("Range", "bytes=" + position + "-" + end);
+        if (validator != null) builder.header("If-Range", validator);
+
+        HttpUtil.HostPermit permit = HttpUtil.acquire(uri);
+        try {
+            HttpResponse<InputStream> response = HttpUtil.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+            if (response.statusCode() != 206 || FileDownloader.startOfRange(response) != position) {
+                response.body().close();
+                throw new IOException("Segment " + segment + ": unexpected HTTP " + response.statusCode());
+            }
+
+            long sinceSave = 0;
+            BandwidthLimiter limiter = FileDownloader.limiterOf(sink);
+            byte[] buffer = BufferPool.acquire();
+            try (InputStream in = response.body()) {
+                int read;
+                while (position <= end && (read = BufferPool.fill(in, buffer, limiter.chunkSize(buffer.length))) != -1) {
+                    int count = (int) Math.min(read, end - position + 1);
+                    ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, count);
+                    while (chunk.hasRemaining()) {
+                        position += channel.write(chunk, position);
+                    }
+                    done.addAndGet(segment, count);
+                    limiter.consume(count);
+                    if (sink != null) sink.onBytes(count);
+
+                    sinceSave += count;
+                    if (sinceSave >= PROGRESS_SAVE_INTERVAL) {
+                        sinceSave = 0;
+                        saveProgress(metaPath, meta, done);
+                    }
+                }
+            } finally {
+                BufferPool.release(buffer);
+            }
+        } finally {
+            permit.close();
+        }
+        if (position <= end) {
+            throw new IOException("Segment " + segment + " ended early at " + position);
+        }
+    }
+
+    /**
+     * Extends the file to its final length so every segment can write at its offset. This does not
+     * reserve disk space: most filesystems keep the file sparse until the bytes arrive, which is
+     * why {@link DiskSpace} is checked before a download starts.
+     */
+    private static void setLength(FileChannel channel, long size) throws IOException {
+        if (channel.size() < size) {
+            channel.write(ByteBuffer.wrap(new byte[1]), size - 1);
+        }
+    }
+
+    private static boolean canResume(Properties meta, String url, long total, String sha1, int segments,
+                                     String etag, String lastModified) {
+        if (meta == null || !meta.containsKey("segments")) return false;
+        if (!url.equals(meta.getProperty("url"))) return false;
+        if (!String.valueOf(total).equals(meta.getProperty("size"))) return false;
+        if (!String.valueOf(segments).equals(meta.getProperty("segments"))) return false;
+        if (sha1 != null && !sha1.equalsIgnoreCase(meta.getProperty("sha1", ""))) return false;
+        // The resource must not have changed since the partial was written
+        if (etag != null) return etag.equals(meta.getProperty("etag"));
+        return lastModified != null && Objects.equals(lastModified, meta.getProperty("lastModified"));
+    }
+
+    private static synchronized void saveProgress(Path metaPath, Properties meta, AtomicLongArray done) throws IOException {
+        for (int i = 0; i < done.length(); i++) {
+            meta.setProperty("done." + i, String.valueOf(done.get(i)));
+        }
+        FileDownloader.storeMeta(metaPath, meta);
+    }
+
+    private static long totalOfRange(HttpResponse<?> response) {
+        // Content-Range: bytes 0-0/1234
+        String value = response.headers().firstValue("Content-Range").orElse("");
+        int slash = value.lastIndexOf('/');
+        if (slash < 0) return -1;
+        try {
+            return Long.parseLong(value.substring(slash + 1).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package me.redlez.dragonLauncher.utils;
 
 import java.io.*;
 import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 public class SettingsUtil {
@@ -72,6 +74,59 @@ public class SettingsUtil {
         return config.getProperty("gameArgs", "");
     }
 
+    public static int getMaxStreamsPerHost() {
+        String value = config.getProperty("maxStreamsPerHost", "16");
+        try {
+            return Math.max(1, Integer.parseInt(value));
+        } catch (NumberFormatException e) {
+            return 16;
+        }
+    }
+
+    /** Cap for all downloads in KB/s, 0 for no limit. */
+    public static int getDownloadLimitKBps() {
+        String value = config.getProperty("downloadLimitKBps", "0");
+        try {
+            return Math.max(0, Integer.parseInt(value));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /** Extra cap for background downloads (asset objects) in KB/s, 0 for no limit. */
+    public static int getBackgroundLimitKBps() {
+        String value = config.getProperty("backgroundLimitKBps", "0");
+        try {
+            return Math.max(0, Integer.parseInt(value));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Mirror base URLs for an artifact class ({@code assets}, {@code libraries}, {@code forge}, {@code java}),
+     * from the comma-separated {@code mirrors.<class>} key. The origin is always used as well.
+     */
+    public static List<String> getMirrors(String artifactClass) {
+        List<String> mirrors = new ArrayList<>();
+        for (String value : config.getProperty("mirrors." + artifactClass, "").split(",")) {
+            String base = value.trim();
+            while (base.endsWith("/")) base = base.substring(0, base.length() - 1);
+            if (!base.isEmpty()) mirrors.add(base);
+        }
+        return mirrors;
+    }
+
+    /**
+     * Base URL of a LAN cache started with {@code --cache-proxy}, e.g. {@code http://192.168.1.10:25590},
+     * or an empty string when downloads go straight to the internet.
+     */
+    public static String getCacheProxy() {
+        String base = config.getProperty("cacheProxy", "").trim();
+        while (base.endsWith("/")) base = base.substring(0, base.length() - 1);
+        return base;
+    }
+
     // === Setters ===
     public static void setRam(int ram) {
         config.setProperty("ram", String.valueOf(ram));
@@ -98,8 +153,36 @@ public class SettingsUtil {
         saveConfig();
     }
 
+    public static void setMaxStreamsPerHost(int streams) {
+        config.setProperty("maxStreamsPerHost", String.valueOf(streams));
+        saveConfig();
+    }
+
+    public static void setDownloadLimitKBps(int limit) {
+        config.setProperty("downloadLimitKBps", String.valueOf(limit));
+        saveConfig();
+        BandwidthLimiter.reload();
+    }
+
+    public static void setBackgroundLimitKBps(int limit) {
+        config.setProperty("backgroundLimitKBps", String.valueOf(limit));
+        saveConfig();
+        BandwidthLimiter.reload();
+    }
+
+    public static void setMirrors(String artifactClass, List<String> mirrors) {
+        config.setProperty("mirrors." + artifactClass, String.join(",", mirrors));
+        saveConfig();
+    }
+
+    public static void setCacheProxy(String base) {
+        config.setProperty("cacheProxy", base);
+        saveConfig();
+    }
+
     // Reload config from disk if it changes outside
     public static void reload() {
         loadConfig();
+        BandwidthLimiter.reload();
     }
 }
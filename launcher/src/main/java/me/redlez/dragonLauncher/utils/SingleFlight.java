@@ -0,0 +1,64 @@
+package me.redlez.dragonLauncher.utils;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Collapses concurrent work on the same key into one execution: the first caller runs it,
+ * everyone arriving while it is in flight waits for and shares its result.
+ */
+final class SingleFlight<K, V> {
+
+    interface Work<V> {
+        V run() throws IOException, InterruptedException;
+    }
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    V run(K key, Work<V> work) throws IOException, InterruptedException {
+        while (true) {
+            CompletableFuture<V> mine = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+            if (existing == null) {
+                return lead(key, mine, work);
+            }
+            try {
+                return existing.get();
+            } catch (CancellationException e) {
+                // The leader's session was cancelled or paused, not failed: take the work over
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException io) throw io;
+                if (cause instanceof RuntimeException re) throw re;
+                throw new IOException(cause);
+            }
+        }
+    }
+
+    private V lead(K key, CompletableFuture<V> mine, Work<V> work) throws IOException, InterruptedException {
+        try {
+            V result = work.run();
+            mine.complete(result);
+            return result;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            if (isInterruption(e)) {
+                mine.cancel(false);
+            } else {
+                mine.completeExceptionally(e);
+            }
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private static boolean isInterruption(Exception e) {
+        return Thread.currentThread().isInterrupted() || e instanceof InterruptedException
+                || e instanceof InterruptedIOException || e instanceof ClosedByInterruptException;
+    }
+}
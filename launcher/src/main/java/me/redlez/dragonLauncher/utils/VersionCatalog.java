@@ -0,0 +1,102 @@
+package me.redlez.dragonLauncher.utils;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import me.redlez.dragonLauncher.utils.VersionHandler.VersionInfo;
+
+/**
+ * Hash indexes over the version manifest: by id, by type, and Minecraft version to Forge builds.
+ * Built once per manifest revision from {@link ManifestCache} and shared by the UI and the runners.
+ */
+public final class VersionCatalog {
+
+    private static volatile VersionCatalog current;
+
+    private record ForgeIndex(Map<String, String> source, Map<String, List<String>> builds) {}
+
+    private final JsonObject source;
+    private final List<VersionInfo> all;
+    private final Map<String, VersionInfo> byId;
+    private final Map<String, List<VersionInfo>> byType;
+    private volatile ForgeIndex forge;
+
+    private VersionCatalog(JsonObject manifest) {
+        this.source = manifest;
+        List<VersionInfo> versions = new ArrayList<>();
+        Map<String, VersionInfo> ids = new HashMap<>();
+        Map<String, List<VersionInfo>> types = new HashMap<>();
+        for (JsonElement e : manifest.getAsJsonArray("versions")) {
+            JsonObject obj = e.getAsJsonObject();
+            VersionInfo info = new VersionInfo();
+            info.id = obj.get("id").getAsString();
+            info.url = obj.get("url").getAsString();
+            info.type = obj.get("type").getAsString();
+            info.releaseTime = Instant.parse(obj.get("releaseTime").getAsString());
+            versions.add(info);
+            ids.putIfAbsent(info.id, info);
+            types.computeIfAbsent(info.type, t -> new ArrayList<>()).add(info);
+        }
+        types.replaceAll((type, list) -> Collections.unmodifiableList(list));
+        this.all = Collections.unmodifiableList(versions);
+        this.byId = ids;
+        this.byType = types;
+    }
+
+    /** The catalog of the current manifest, rebuilt only when the manifest has been replaced. */
+    public static VersionCatalog get() throws IOException, InterruptedException {
+        JsonObject manifest = ManifestCache.get();
+        VersionCatalog catalog = current;
+        if (catalog == null || catalog.source != manifest) {
+            catalog = new VersionCatalog(manifest);
+            current = catalog;
+        }
+        return catalog;
+    }
+
+    /** Every version in manifest order (newest first). */
+    public List<VersionInfo> all() {
+        return all;
+    }
+
+    /** @return the version, or null when the manifest does not list it */
+    public VersionInfo byId(String id) {
+        return byId.get(id);
+    }
+
+    /** Versions of one type ({@code release}, {@code snapshot}, ...) in manifest order. */
+    public List<VersionInfo> ofType(String type) {
+        return byType.getOrDefault(type, List.of());
+    }
+
+    /** Forge builds promoted for {@code mcVersion}, e.g. {@code 47.1.44}, in promotion order. */
+    public List<String> forgeBuilds(String mcVersion) throws IOException, InterruptedException {
+        Map<String, String> installers = ForgeFetcher.getForgeInstallers();
+        ForgeIndex index = forge;
+        if (index == null || index.source() != installers) {
+            index = new ForgeIndex(installers, indexForge(installers));
+            forge = index;
+        }
+        return index.builds().getOrDefault(mcVersion, List.of());
+    }
+
+    private static Map<String, List<String>> indexForge(Map<String, String> installers) {
+        Map<String, List<String>> builds = new HashMap<>();
+        for (String fullVersion : installers.keySet()) {
+            // "<mc version>-<forge build>"; Minecraft ids in promotions never contain a dash
+            int dash = fullVersion.indexOf('-');
+            if (dash <= 0) continue;
+            builds.computeIfAbsent(fullVersion.substring(0, dash), v -> new ArrayList<>())
+                    .add(fullVersion.substring(dash + 1));
+        }
+        return builds;
+    }
+}
@@ -1,17 +1,21 @@
 package me.redlez.dragonLauncher.utils;
 
-import java.net.URI;
+import java.io.IOException;
 import java.net.http.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
-import java.nio.file.attribute.FileTime;
-import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import com.google.gson.JsonArray;
@@ -22,12 +26,7 @@ import com.google.gson.JsonParser;
 public class VersionHandler {
 	
 	private static Path baseDir = Paths.get(System.getProperty("user.home"), ".minecraft");
-    private static final Path CACHE_FILE = baseDir.resolve("versions_cache.json");
-    private static final String VERSION_MANIFEST = "https://launchermeta.mojang.com/mc/game/version_manifest.json";
     private static final LoggerUtil LOGGER = new LoggerUtil("VersionHandler");
-    private static final HttpClient client = HttpClient.newBuilder()
-            .followRedirects(HttpClient.Redirect.ALWAYS)
-            .build();
 
     public static class Downloadable {
         public String url;
@@ -46,12 +45,13 @@ public class VersionHandler {
     public static class VersionInfo {
         public String id;
         public String url;
+        public String type;
         public Instant releaseTime;
     }
 
     public static class VersionMetadata {
         public List<Downloadable> libraries = new ArrayList<>();
-        public List<Downloadable> assets = new ArrayList<>();
+        public AssetTable assets = AssetTable.EMPTY;
         public String assetsIndexId;
         public Downloadable clientJar;
         public Downloadable assetIndex;
@@ -65,34 +65,11 @@ public class VersionHandler {
     }
 
     public static JsonObject getVersionManifest() throws Exception {
-        if (Files.exists(CACHE_FILE)) {
-            FileTime lastModified = Files.getLastModifiedTime(CACHE_FILE);
-            if (Instant.now().minus(Duration.ofHours(1)).isBefore(lastModified.toInstant())) {
-                return JsonParser.parseString(Files.readString(CACHE_FILE)).getAsJsonObject();
-            }
-        }
-
-        HttpRequest req = HttpRequest.newBuilder().uri(URI.create(VERSION_MANIFEST)).build();
-        HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
-        Files.writeString(CACHE_FILE, resp.body());
-        return JsonParser.parseString(resp.body()).getAsJsonObject();
+        return ManifestCache.get();
     }
     
     public JsonObject fetchVersions() throws Exception {
-        if (Files.exists(CACHE_FILE)) {
-            FileTime lastModified = Files.getLastModifiedTime(CACHE_FILE);
-            if (Instant.now().minus(Duration.ofHours(1)).isBefore(lastModified.toInstant())) {
-                return JsonParser.parseString(Files.readString(CACHE_FILE)).getAsJsonObject();
-            }
-        }
-
-        // Download latest version manifest
-        HttpRequest req = HttpRequest.newBuilder().uri(URI.create(VERSION_MANIFEST)).build();
-        HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
-
-        // Cache locally
-        Files.writeString(CACHE_FILE, resp.body());
-        return JsonParser.parseString(resp.body()).getAsJsonObject();
+        return getVersionManifest();
     }
     
     public static VersionInfo getVersionInfo(String version) throws Exception {
@@ -113,68 +90,113 @@ public class VersionHandler {
         }
 
         // Regular Mojang version
-        JsonObject manifest = getVersionManifest();
-        for (JsonElement e : manifest.getAsJsonArray("versions")) {
-            JsonObject obj = e.getAsJsonObject();
-            if (obj.get("id").getAsString().equals(version)) {
-                VersionInfo info = new VersionInfo();
-                info.id = obj.get("id").getAsString();
-                info.url = obj.get("url").getAsString();
-                info.releaseTime = Instant.parse(obj.get("releaseTime").getAsString());
-                return info;
-            }
-        }
-        throw new IllegalArgumentException("Version not found: " + version);
+        VersionInfo info = VersionCatalog.get().byId(version);
+        if (info == null) throw new IllegalArgumentException("Version not found: " + version);
+        return info;
     }
 
     
+    /**
+     * Metadata resolved in two steps: {@code versionJson} completes once the version JSON is parsed
+     * (client, libraries, where the asset index is) and {@code complete} once the asset index is
+     * parsed into the same instance. Work that only needs the first step can start before the second ends.
+     */
+    public record MetadataPipeline(CompletableFuture<VersionMetadata> versionJson,
+                                   CompletableFuture<VersionMetadata> complete) {}
+
+    private record Parsed(VersionMetadata metadata, Path versionJson) {}
+
+    private interface Step<T> {
+        T run() throws Exception;
+    }
+
+    private static final Map<String, MetadataPipeline> RESOLVING = new ConcurrentHashMap<>();
+    private static final Executor RESOLVER = task -> Thread.ofVirtual().name("metadata-resolver").start(task);
+
     public static VersionMetadata getVersionMetadata(String version, boolean online) throws Exception {
-        VersionInfo info;
+        return await(resolveMetadata(version, online).complete());
+    }
 
-        if (!online) {
-            // --- OFFLINE: load version JSON from disk ---
-            Path localVersionJson = baseDir.resolve("versions").resolve(version).resolve(version + ".json");
-            if (!Files.exists(localVersionJson)) {
-                throw new IllegalStateException("Offline mode: version JSON not found locally for " + version);
+    /**
+     * Starts resolving {@code version}, or joins the resolution already running for it. Metadata
+     * already known to {@link MetadataCache} comes back as completed futures.
+     */
+    public static MetadataPipeline resolveMetadata(String version, boolean online) throws IOException {
+        Path localVersionJson = baseDir.resolve("versions").resolve(version).resolve(version + ".json");
+        if (Files.exists(localVersionJson)) {
+            VersionMetadata cached = MetadataCache.lookup(version, localVersionJson);
+            if (cached != null) {
+                CompletableFuture<VersionMetadata> done = CompletableFuture.completedFuture(cached);
+                return new MetadataPipeline(done, done);
             }
+        }
 
-            JsonObject meta = JsonParser.parseString(Files.readString(localVersionJson)).getAsJsonObject();
-            info = new VersionInfo();
-            info.id = version;
-            info.url = localVersionJson.toString(); // just to satisfy VersionInfo.url usage
-            info.releaseTime = Instant.now(); // arbitrary
+        MetadataPipeline running = RESOLVING.get(version);
+        if (running != null) return running;
+        MetadataPipeline started = new MetadataPipeline(new CompletableFuture<>(), new CompletableFuture<>());
+        running = RESOLVING.putIfAbsent(version, started);
+        if (running != null) return running;
+
+        CompletableFuture<Parsed> parsed = CompletableFuture.supplyAsync(() -> step(() -> {
+            ensureVersionJson(version, localVersionJson, online);
+            JsonObject json = JsonParser.parseString(Files.readString(localVersionJson)).getAsJsonObject();
+            return new Parsed(parseVersionJson(json, version), localVersionJson);
+        }), RESOLVER);
+        CompletableFuture<VersionMetadata> complete = parsed.thenApplyAsync(p -> step(() -> {
+            loadAssets(p.metadata());
+            MetadataCache.store(version, p.versionJson(), p.metadata());
+            return p.metadata();
+        }), RESOLVER);
+
+        parsed.whenComplete((p, error) -> {
+            if (error != null) started.versionJson().completeExceptionally(error);
+            else started.versionJson().complete(p.metadata());
+        });
+        complete.whenComplete((metadata, error) -> {
+            RESOLVING.remove(version, started);
+            if (error != null) started.complete().completeExceptionally(error);
+            else started.complete().complete(metadata);
+        });
+        return started;
+    }
 
-            return parseVersionMetadataFromJson(meta, version);
+    /** Waits for a pipeline step, rethrowing what made it fail. */
+    public static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception ex) throw ex;
+            throw e;
+        }
+    }
 
-        } else {
-            // --- ONLINE: fetch version JSON from Mojang servers ---
-            info = getVersionInfo(version);
-            Path localVersionJson = baseDir.resolve("versions").resolve(version).resolve(version + ".json");
-            
-            if (!Files.exists(localVersionJson)) {
-            	HttpRequest req = HttpRequest.newBuilder().uri(URI.create(info.url)).build();
-                HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
-                JsonObject meta = JsonParser.parseString(resp.body()).getAsJsonObject();
-                Path versionDir = baseDir.resolve("versions").resolve(version);
-                Files.createDirectories(versionDir);
-                Files.writeString(versionDir.resolve(version + ".json"), resp.body());
-                return parseVersionMetadataFromJson(meta, version);
-            }else {
-            	JsonObject meta = JsonParser.parseString(Files.readString(localVersionJson)).getAsJsonObject();
-                info = new VersionInfo();
-                info.id = version;
-                info.url = localVersionJson.toString(); // just to satisfy VersionInfo.url usage
-                info.releaseTime = Instant.now(); // arbitrary
-
-                return parseVersionMetadataFromJson(meta, version);
-            }
-            
-            
+    private static <T> T step(Step<T> step) {
+        try {
+            return step.run();
+        } catch (Exception e) {
+            throw new CompletionException(e);
         }
     }
 
-    // --- helper method to parse the version JSON into VersionMetadata ---
-    private static VersionMetadata parseVersionMetadataFromJson(JsonObject meta, String version) throws Exception {
+    private static void ensureVersionJson(String version, Path localVersionJson, boolean online) throws Exception {
+        if (Files.exists(localVersionJson)) return;
+        if (!online) {
+            throw new IllegalStateException("Offline mode: version JSON not found locally for " + version);
+        }
+        // --- ONLINE: fetch version JSON from Mojang servers ---
+        VersionInfo info = getVersionInfo(version);
+        HttpRequest req = HttpUtil.request(info.url).build();
+        HttpResponse<String> resp = HttpUtil.send(req, HttpResponse.BodyHandlers.ofString());
+        Files.createDirectories(localVersionJson.getParent());
+        // Atomic: the Forge installer may read it while it is being written
+        Path temp = localVersionJson.resolveSibling(localVersionJson.getFileName() + ".tmp");
+        Files.writeString(temp, resp.body());
+        Files.move(temp, localVersionJson, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // --- helper method to parse the version JSON into VersionMetadata; the asset objects follow in loadAssets ---
+    private static VersionMetadata parseVersionJson(JsonObject meta, String version) throws Exception {
         VersionMetadata result = new VersionMetadata();
 
      // --- Libraries ---
@@ -256,44 +278,37 @@ public class VersionHandler {
             Path assetIndexPath = baseDir.resolve("assets").resolve("indexes")
                     .resolve(assetIndexJson.get("id").getAsString() + ".json");
             result.assetsIndexId = assetIndexJson.get("id").getAsString();
-
-            if (!Files.exists(assetIndexPath)) {
-                try {
-                    // Ensure directories exist
-                    Files.createDirectories(assetIndexPath.getParent());
-
-                    // Download using your DownloadManager
-                    DownloadManager.downloadFile(assetIndexJson.get("url").getAsString(), assetIndexPath);
-
-                    LOGGER.info("Downloaded asset index via DownloadManager: " + assetIndexPath);
-                } catch (Exception e) {
-                    LOGGER.error("Failed to fetch asset index: " + e);
-                    throw new RuntimeException(e);
-                }
-            }
-
-            JsonObject assetsJson = JsonParser.parseString(Files.readString(assetIndexPath)).getAsJsonObject();
-            JsonObject objects = assetsJson.getAsJsonObject("objects");
-
-            for (Map.Entry<String, JsonElement> entry : objects.entrySet()) {
-                JsonObject obj = entry.getValue().getAsJsonObject();
-                String hash = obj.get("hash").getAsString();
-                long size = obj.get("size").getAsLong();
-
-                Path path = baseDir.resolve("assets").resolve("objects").resolve(hash.substring(0, 2)).resolve(hash);
-                String url = "https://resources.download.minecraft.net/" + hash.substring(0, 2) + "/" + hash;
-
-                result.assets.add(new Downloadable(url, hash, size, path));
-            }
+            result.assetIndex = new Downloadable(
+                    assetIndexJson.get("url").getAsString(),
+                    assetIndexJson.get("sha1").getAsString(),
+                    assetIndexJson.get("size").getAsLong(),
+                    assetIndexPath
+            );
         }
 
-
-        
         long total = result.libraries.stream().mapToLong(d -> d.size).sum();
-        total += result.assets.stream().mapToLong(d -> d.size).sum();
         if (result.clientJar != null) total += result.clientJar.size;
         result.totalSize = total;
 
         return result;
     }
+
+    // --- second step: the asset index, fetched by its hash and streamed into an AssetTable ---
+    private static void loadAssets(VersionMetadata result) throws Exception {
+        Downloadable index = result.assetIndex;
+        if (index == null) return;
+
+        if (!Files.exists(index.path)) {
+            try {
+                ArtifactStore.fetch(index.url, index.sha1, index.size, index.path, null);
+                LOGGER.info("Downloaded asset index: " + index.path);
+            } catch (Exception e) {
+                LOGGER.error("Failed to fetch asset index: " + e);
+                throw e;
+            }
+        }
+
+        result.assets = AssetTable.parse(index.path, baseDir.resolve("assets").resolve("objects"));
+        result.totalSize += result.assets.totalSize();
+    }
 }
\ No newline at end of file